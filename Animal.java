@@ -1,6 +1,4 @@
 import java.util.List;
-import java.util.Iterator;
-import java.util.Random;
 
 /**
  * A class representing shared characteristics of animals.
@@ -10,44 +8,32 @@ import java.util.Random;
  */
 public abstract class Animal extends Organism
 {
-    // The age at which the animal can first breed
-    private final int breedingAge;
-    // The gender of the animal
-    private final Gender gender;
-    // The age at which the animal dies of old age
-    private final int maxAge;
-    // Current age of the animal
-    private int age;
-    // The animal's food level, which is increased by animals of lower trophic levels
-    private int foodLevel;
-
-
-    private static final Random rand = Randomizer.getRandom();
-    // A shared random number generator to control breeding.
+    // Where the animal's age, food level, gender, maximum age and breeding age are kept
+    private final AnimalComponents components;
+    // The animal's id in the components
+    private final int id;
 
     /**
      * Create a new animal at location in field.
      *  @param randomAge True if you want the animal to be given a random age
      * @param field The field currently occupied.
      * @param location The location within the field.
-     * @param maxAge The age in steps at which the animal dies
-     * @param breedingAge The age in steps at which the animal can start breeding
-     * @param breedingProbability The probability (as a decimal) of the animal breeding at any step
-     * @param maxOffspring The most births the animal can have at once
-     * @param trophicLevel The animals position in the food chain
-     * @param chanceOfDeathInSnow The chance of animal dying due to snow at any time
-     * @param diseaseMutationProbability The probability of a disease first appearing in this organism
+     * @param traits The traits of the animal's species, giving its maximum age,
+     *               breeding age and probability, litter size, trophic level,
+     *               chance of dying in snow and disease mutation probability
      */
-    public Animal(boolean randomAge, Field field, Location location, int maxAge,
-                  int breedingAge, double breedingProbability, int maxOffspring, int trophicLevel, double chanceOfDeathInSnow, double diseaseMutationProbability)
+    public Animal(boolean randomAge, Field field, Location location, SpeciesTraits traits)
     {
-        super(field, location, trophicLevel, chanceOfDeathInSnow, breedingProbability, maxOffspring, diseaseMutationProbability);
-        this.maxAge = maxAge;
-        this.breedingAge = breedingAge / 2;
+        super(field, location, traits.getTrophicLevel(), traits.getChanceOfDeathInSnow(),
+              traits.getBreedingProbability(), traits.getMaxOffspring(), traits.getDiseaseMutationProbability());
+        int maxAge = traits.getMaxAge();
+        int breedingAge = traits.getBreedingAge() / 2;
 
-        gender = rand.nextBoolean() ? Gender.MALE : Gender.FEMALE;
+        Gender gender = rand.nextBoolean() ? Gender.MALE : Gender.FEMALE;
         // Animal has a 50% chance of being male or female
 
+        int age;
+        int foodLevel;
         if(randomAge) {
             age = rand.nextInt(maxAge);
             foodLevel = rand.nextInt(getFoodValue() * 3 - 4);
@@ -56,6 +42,10 @@ public abstract class Animal extends Organism
             age = 0;
             foodLevel = getFoodValue()* 3;
         }
+        components = field.getAnimalComponents();
+        id = components.allocate(this, age, foodLevel, gender, maxAge, breedingAge);
+        // The animal was placed before it had a gender, so count it again.
+        field.updateSummary(getCell());
     }
 
     /**
@@ -64,24 +54,83 @@ public abstract class Animal extends Organism
      */
     public Gender getGender()
     {
-        return gender;
+        return components.getGender(id);
+    }
+
+    /**
+     * @return The index of the animal's gender, or -1 while the animal
+     *         is still being made and has none.
+     */
+    @Override
+    protected int getGenderIndex()
+    {
+        return components == null ? -1 : components.getGender(id).ordinal();
+    }
+
+    /**
+     * @return The age of the animal in steps.
+     */
+    public int getAge()
+    {
+        return components.getAge(id);
+    }
+
+    /**
+     * @return The animal's food level.
+     */
+    public int getFoodLevel()
+    {
+        return components.getFoodLevel(id);
+    }
+
+    /**
+     * @return The animal's id in its field's components.
+     */
+    protected int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Overwrite the animal's age, food level and gender, such as when
+     * restoring a checkpoint.
+     * @param age The animal's age in steps.
+     * @param foodLevel The animal's food level.
+     * @param gender The animal's gender.
+     */
+    protected void restoreState(int age, int foodLevel, Gender gender)
+    {
+        components.setAge(id, age);
+        components.setFoodLevel(id, foodLevel);
+        components.setGender(id, gender);
+        getField().updateSummary(getCell());
+    }
+
+    /**
+     * Give the animal's id back to the components once the simulator
+     * has dropped it. Its age, food level and gender must not be read
+     * after this.
+     */
+    @Override
+    protected void discard()
+    {
+        components.release(id);
     }
 
     /**
      * Make this animal act - that is: make it do
-     * whatever it wants/needs to do.
+     * whatever it wants/needs to do. Ageing and hunger have already been
+     * applied to every animal at once by AnimalComponents.advanceLifecycle.
      * @param newOrganisms A list to receive newly born animals.
      * @param weather The current weather
      * @param isDayTime True if it is currently day time in the simulation
      */
     public void act(List<Organism> newOrganisms, Weather weather, boolean isDayTime)
     {
-        incrementAge();
-        incrementHunger();
         if(isAlive() && isDayTime) {
             if(wouldDieFromSnow(weather))
             {
-                setDead();
+                setDead(DeathCause.SNOW);
             }
             else {
                 giveBirth(newOrganisms);
@@ -91,17 +140,17 @@ public abstract class Animal extends Organism
                 if(!isAlive())
                     return;
                 // Move towards a source of food if found.
-                Location newLocation = findFood();
-                if (newLocation == null) {
+                int newCell = findFood();
+                if (newCell < 0) {
                     // No food found - try to move to a free location.
-                    newLocation = getField().freeAdjacentLocation(getLocation());
+                    newCell = getField().freeAdjacentCell(getCell(), rand);
                 }
                 // See if it was possible to move.
-                if (newLocation != null) {
-                    setLocation(newLocation);
+                if (newCell >= 0) {
+                    setLocation(newCell);
                 } else {
                     // Overcrowding.
-                    setDead();
+                    setDead(DeathCause.OVERCROWDING);
                 }
             }
         }
@@ -119,48 +168,30 @@ public abstract class Animal extends Organism
     /**
      * Look for preys adjacent to the current location.
      * Only the first live prey is eaten.
-     * @return Where food was found, or null if it wasn't.
+     * @return The cell where food was found, or -1 if it wasn't.
      */
-    private Location findFood()
+    private int findFood()
     {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
+        // The field's summary says at once whether any prey is next to us.
+        if(!field.hasNeighbourAtLevel(getCell(), getTrophicLevel() - 1)) {
+            return -1;
+        }
+        Neighbourhood around = field.neighbours(getCell(), rand);
 
         // Loops through adjacent locations checking for prey to eat, and eats them if they exist
-        for (Location where : adjacent) {
-            Organism organism = field.getObjectAt(where);
+        while(around.advance()) {
+            Organism organism = field.getObjectAt(around.getCell());
             if (!(organism == null) && canEat(organism)) {
                 // Eat organism
                 if (organism.isAlive()) {
-                    organism.setDead();
-                    foodLevel += organism.getFoodValue();
-                    return where;
+                    organism.setDead(DeathCause.PREDATION);
+                    components.setFoodLevel(id, components.getFoodLevel(id) + organism.getFoodValue());
+                    return around.getCell();
                 }
             }
         }
-        return null;
-    }
-
-    /**
-     * Increases the animals age and if the animal reaches its maximum age, it dies
-     */
-    private void incrementAge()
-    {
-        age++;
-        if(age > maxAge) {
-            setDead();
-        }
-    }
-
-    /**
-     * Make this fox more hungry. This could result in the fox's death.
-     */
-    private void incrementHunger()
-    {
-        foodLevel--;
-        if(foodLevel <= 0) {
-            setDead();
-        }
+        return -1;
     }
 
     /**
@@ -178,16 +209,16 @@ public abstract class Animal extends Organism
     }
 
     /**
-     * A fox can breed if it has reached the breeding age.
+     * A fox can breed if it has reached the breeding age and a mate
+     * of the opposite gender is adjacent.
      */
     private boolean canBreed()
     {
-        boolean mateNearby = getField().adjacentLocations(getLocation()).stream().anyMatch(
-                location -> (getField().getObjectAt(location) != null    // prevent NullPointerException
-                && getField().getObjectAt(location).getClass() == this.getClass()  //If space contains animal of same type
-                && ((Animal)getField().getObjectAt(location)).gender != getGender())     // And both are opposite species
-        );
-        return age >= breedingAge && mateNearby;
+        if(components.getAge(id) < components.getBreedingAge(id)) {
+            return false;
+        }
+        // A mate is an animal of the same species and the opposite gender.
+        return getField().hasMateNear(getCell(), getSpeciesCode(), getGender());
     }
 
     /**
@@ -0,0 +1,324 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The changing state of every animal in a field, stored as parallel
+ * arrays of primitives indexed by an entity id, rather than as fields
+ * scattered across the animal objects.
+ *
+ * Each Animal is given an id when it is created and reads and writes
+ * its age, food level, gender, maximum age and breeding age here, so
+ * the Animal object acts as a view onto its row of the arrays.
+ *
+ * Every animal ages and grows hungrier by one each step, so rather
+ * than change every animal each step the components keep a clock of
+ * the steps taken. The arrays hold the step an animal was born on and
+ * the step its food runs out, and the getters and setters work its age
+ * and food level out from the clock. An animal's death from old age or
+ * starvation is then known in advance, so each animal is filed in a
+ * timing wheel under the step it is due to die on, and a step only
+ * looks at the animals filed under it.
+ *
+ * The wheel is a ring of WHEEL_SIZE buckets, one for each step modulo
+ * WHEEL_SIZE. Entries are never taken out early. When an animal eats
+ * and lives longer, its entry is left where it is; when the entry
+ * comes round, the animal is found not to be due and is filed again
+ * under its new step. An animal due further ahead than the ring is
+ * long is filed again in the same way each time the ring comes round.
+ *
+ * The arrays are split into fixed-size chunks that never move once
+ * made, so adding chunks while other threads are using existing ids is
+ * safe. Ids are handed out under a lock and recycled once the
+ * simulator has dropped a dead animal.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class AnimalComponents
+{
+    // The number of ids in each chunk, as a power of two.
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    // The number of steps in the timing wheel, as a power of two. Most
+    // animals live fewer steps than this, so are filed only once.
+    private static final int WHEEL_BITS = 10;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    // The components, by chunk and then by position within the chunk.
+    // Ages are held as the negated step of birth and food levels as the
+    // step the food runs out, so that neither changes as the clock runs.
+    private int[][] ages;
+    private int[][] foodLevels;
+    private int[][] maxAges;
+    private int[][] breedingAges;
+    private byte[][] genders;
+    // The animal owning each id, or null if the id is free.
+    private Animal[][] owners;
+
+    // Ids that have been released and can be handed out again.
+    private int[] freeIds;
+    private int freeCount;
+    // The lowest id that has never been handed out.
+    private int nextId;
+
+    // The number of steps taken since the components were cleared.
+    private int clock;
+    // The animals that may die on each step, by step modulo WHEEL_SIZE.
+    private List<List<Animal>> wheel;
+
+    /**
+     * Create an empty set of components.
+     */
+    public AnimalComponents()
+    {
+        clear();
+    }
+
+    /**
+     * Forget every animal.
+     */
+    public synchronized void clear()
+    {
+        ages = new int[0][];
+        foodLevels = new int[0][];
+        maxAges = new int[0][];
+        breedingAges = new int[0][];
+        genders = new byte[0][];
+        owners = new Animal[0][];
+        freeIds = new int[16];
+        freeCount = 0;
+        nextId = 0;
+        clock = 0;
+        wheel = new ArrayList<>(WHEEL_SIZE);
+        for(int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Give an animal an id and set its starting components.
+     * @param owner The animal.
+     * @param age Its age.
+     * @param foodLevel Its food level.
+     * @param gender Its gender.
+     * @param maxAge The age at which it dies.
+     * @param breedingAge The age at which it can breed.
+     * @return The animal's id.
+     */
+    public int allocate(Animal owner, int age, int foodLevel, Gender gender, int maxAge, int breedingAge)
+    {
+        int id = nextFreeId();
+        int chunk = id >>> CHUNK_BITS, slot = id & CHUNK_MASK;
+        ages[chunk][slot] = age - clock;
+        foodLevels[chunk][slot] = foodLevel + clock;
+        genders[chunk][slot] = (byte) gender.ordinal();
+        maxAges[chunk][slot] = maxAge;
+        breedingAges[chunk][slot] = breedingAge;
+        owners[chunk][slot] = owner;
+        schedule(owner, dueStep(id));
+        return id;
+    }
+
+    /**
+     * Release the id of an animal that has left the simulation, so that
+     * it can be handed out again.
+     * @param id The animal's id.
+     */
+    public synchronized void release(int id)
+    {
+        owners[id >>> CHUNK_BITS][id & CHUNK_MASK] = null;
+        if(freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * Age every live animal by one step and make it one step hungrier,
+     * then kill those that are too old or have starved. Only the
+     * animals filed under this step in the timing wheel are looked at;
+     * those not due after all are filed again under the step they are.
+     */
+    public void advanceLifecycle()
+    {
+        clock++;
+        List<Animal> bucket = wheel.get(clock & WHEEL_MASK);
+        // Animals filed again a whole turn ahead are added to this same
+        // bucket, after the ones being looked at.
+        int count = bucket.size();
+        for(int i = 0; i < count; i++) {
+            Animal animal = bucket.get(i);
+            if(!animal.isAlive()) {
+                continue;
+            }
+            int id = animal.getId();
+            int due = dueStep(id);
+            if(due <= clock) {
+                animal.setDead(getAge(id) > getMaxAge(id) ? DeathCause.OLD_AGE : DeathCause.STARVATION);
+            }
+            else if(((due - clock) & WHEEL_MASK) == 0) {
+                // Due a whole number of turns ahead, so back into this bucket.
+                bucket.add(animal);
+            }
+            else {
+                schedule(animal, due);
+            }
+        }
+        bucket.subList(0, count).clear();
+    }
+
+    /**
+     * File an animal in the timing wheel under the step it is due to
+     * die on, or under the next step if that has passed.
+     * @param animal The animal.
+     * @param step The step it is due to die on.
+     */
+    private synchronized void schedule(Animal animal, int step)
+    {
+        wheel.get(Math.max(step, clock + 1) & WHEEL_MASK).add(animal);
+    }
+
+    /**
+     * Work out the step an animal dies on unless it eats first: the
+     * step its age passes its maximum age or its food level reaches zero.
+     * @param id An animal's id.
+     * @return The step it is due to die on.
+     */
+    private int dueStep(int id)
+    {
+        int chunk = id >>> CHUNK_BITS, slot = id & CHUNK_MASK;
+        return Math.min(maxAges[chunk][slot] + 1 - ages[chunk][slot], foodLevels[chunk][slot]);
+    }
+
+    /**
+     * File an animal again if a change to its components brings its
+     * death forward. A death put back is left where it is filed and
+     * found not to be due when its step comes.
+     * @param id An animal's id.
+     * @param dueBefore The step it was due to die on before the change.
+     */
+    private void rescheduleIfSooner(int id, int dueBefore)
+    {
+        int due = dueStep(id);
+        Animal owner = owners[id >>> CHUNK_BITS][id & CHUNK_MASK];
+        if(due < dueBefore && owner != null) {
+            schedule(owner, due);
+        }
+    }
+
+    /**
+     * @param id An animal's id.
+     * @return Its age in steps.
+     */
+    public int getAge(int id)
+    {
+        return ages[id >>> CHUNK_BITS][id & CHUNK_MASK] + clock;
+    }
+
+    /**
+     * @param id An animal's id.
+     * @param age Its new age in steps.
+     */
+    public void setAge(int id, int age)
+    {
+        int dueBefore = dueStep(id);
+        ages[id >>> CHUNK_BITS][id & CHUNK_MASK] = age - clock;
+        rescheduleIfSooner(id, dueBefore);
+    }
+
+    /**
+     * @param id An animal's id.
+     * @return Its food level.
+     */
+    public int getFoodLevel(int id)
+    {
+        return foodLevels[id >>> CHUNK_BITS][id & CHUNK_MASK] - clock;
+    }
+
+    /**
+     * @param id An animal's id.
+     * @param foodLevel Its new food level.
+     */
+    public void setFoodLevel(int id, int foodLevel)
+    {
+        int dueBefore = dueStep(id);
+        foodLevels[id >>> CHUNK_BITS][id & CHUNK_MASK] = foodLevel + clock;
+        rescheduleIfSooner(id, dueBefore);
+    }
+
+    /**
+     * @param id An animal's id.
+     * @return Its gender.
+     */
+    public Gender getGender(int id)
+    {
+        return Gender.values()[genders[id >>> CHUNK_BITS][id & CHUNK_MASK]];
+    }
+
+    /**
+     * @param id An animal's id.
+     * @param gender Its new gender.
+     */
+    public void setGender(int id, Gender gender)
+    {
+        genders[id >>> CHUNK_BITS][id & CHUNK_MASK] = (byte) gender.ordinal();
+    }
+
+    /**
+     * @param id An animal's id.
+     * @return The age at which it dies.
+     */
+    public int getMaxAge(int id)
+    {
+        return maxAges[id >>> CHUNK_BITS][id & CHUNK_MASK];
+    }
+
+    /**
+     * @param id An animal's id.
+     * @return The age at which it can breed.
+     */
+    public int getBreedingAge(int id)
+    {
+        return breedingAges[id >>> CHUNK_BITS][id & CHUNK_MASK];
+    }
+
+    /**
+     * Take an id from the free list, or a new one, adding a chunk if needed.
+     */
+    private synchronized int nextFreeId()
+    {
+        if(freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        int id = nextId++;
+        if((id >>> CHUNK_BITS) == owners.length) {
+            addChunk();
+        }
+        return id;
+    }
+
+    /**
+     * Add one chunk to every component. Existing chunks are kept as
+     * they are, so ids already handed out stay valid on every thread.
+     */
+    private void addChunk()
+    {
+        int chunks = owners.length + 1;
+        ages = Arrays.copyOf(ages, chunks);
+        foodLevels = Arrays.copyOf(foodLevels, chunks);
+        maxAges = Arrays.copyOf(maxAges, chunks);
+        breedingAges = Arrays.copyOf(breedingAges, chunks);
+        genders = Arrays.copyOf(genders, chunks);
+        owners = Arrays.copyOf(owners, chunks);
+        int last = chunks - 1;
+        ages[last] = new int[CHUNK_SIZE];
+        foodLevels[last] = new int[CHUNK_SIZE];
+        maxAges[last] = new int[CHUNK_SIZE];
+        breedingAges[last] = new int[CHUNK_SIZE];
+        genders[last] = new byte[CHUNK_SIZE];
+        owners[last] = new Animal[CHUNK_SIZE];
+    }
+}
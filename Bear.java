@@ -9,6 +9,9 @@ public class Bear extends Animal
 {
     // Probability of bear spawning in location upon simulation creation
     public static final double creationProbability = 0.026;
+    // The traits a bear has unless the simulation's parameters say otherwise
+    public static final SpeciesTraits DEFAULT_TRAITS =
+        new SpeciesTraits(300, 35, 0.12, 2, 4, 0, 0.0003, creationProbability);
     /**
      * Create a fox. A fox can be created as a new born (age zero
      * and not hungry) or with a random age and food level.
@@ -18,7 +21,7 @@ public class Bear extends Animal
      * @param location The location within the field.
      */
     public Bear(boolean randomAge, Field field, Location location) {
-        super(randomAge, field, location, 300, 35, 0.12, 2, 4, 0, 0.0003);
+        super(randomAge, field, location, field.getParameters().traitsOf(Bear.class));
     }
 
     /**
@@ -8,6 +8,9 @@ public class Beaver extends Animal
 {
     // Probability of beaver spawning in location upon simulation creation
     public static final double creationProbability = 0.07;
+    // The traits a beaver has unless the simulation's parameters say otherwise
+    public static final SpeciesTraits DEFAULT_TRAITS =
+        new SpeciesTraits(160, 12, 0.28, 4, 2, 0.06, 0.001, creationProbability);
     /**
      * Create a Jackal. A fox can be created as a new born (age zero
      * and not hungry) or with a random age and food level.
@@ -17,7 +20,7 @@ public class Beaver extends Animal
      * @param location The location within the field.
      */
     public Beaver(boolean randomAge, Field field, Location location) {
-        super(randomAge, field, location, 160, 12, 0.28, 4, 2, 0.06, 0.001);
+        super(randomAge, field, location, field.getParameters().traitsOf(Beaver.class));
     }
 
     /**
@@ -0,0 +1,258 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A step engine that lets organisms act on several threads at once.
+ *
+ * The field is cut into horizontal bands that span its full width.
+ * Bands are coloured red and black alternately and a step runs in two
+ * phases: every red band acts concurrently, then every black band.
+ * An organism only ever reads or changes the cells next to it, so as
+ * long as every band is at least two rows deep, two bands of the same
+ * colour never touch the same cell and need no locking.
+ *
+ * Organisms are assigned to the band holding them at the start of the
+ * step, so one that moves into another band still acts exactly once.
+ * Within a band organisms act in the order the simulator holds them,
+ * and newborns are collected per band and added in band order.
+ *
+ * Every few steps the band boundaries are moved so that each band
+ * holds about the same number of organisms, which keeps the threads
+ * evenly loaded when populations cluster. The layout depends only on
+ * the population, never on the number of threads.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class CheckerboardEngine implements StepEngine
+{
+    // The fewest rows a band may have. Two rows keeps same-coloured bands apart.
+    private static final int MIN_BAND_DEPTH = 2;
+    // The number of bands used when the field is deep enough.
+    private static final int DEFAULT_BANDS = 64;
+    // How many steps pass between rebalancing the bands.
+    private static final int REBALANCE_INTERVAL = 10;
+
+    // The pool the bands act on.
+    private final ForkJoinPool pool;
+    // The number of bands wanted.
+    private final int targetBands;
+    // The first row of each band, plus the field depth as a final entry.
+    private int[] bandStarts;
+    // The band each row belongs to.
+    private int[] bandOfRow;
+    // The organisms in each band this step, reused between steps.
+    private List<List<Organism>> members;
+    // The organisms born in each band this step, reused between steps.
+    private List<List<Organism>> born;
+    // Steps since the bands were last rebalanced.
+    private int stepsSinceBalance;
+    // The metrics of the field acting this step, which time the acts.
+    private StepMetrics metrics;
+
+    /**
+     * Create an engine that runs on the common fork/join pool.
+     */
+    public CheckerboardEngine()
+    {
+        this(ForkJoinPool.commonPool(), DEFAULT_BANDS);
+    }
+
+    /**
+     * Create an engine with its own pool of the given size.
+     * @param parallelism The number of threads to act on.
+     */
+    public CheckerboardEngine(int parallelism)
+    {
+        this(new ForkJoinPool(parallelism), DEFAULT_BANDS);
+    }
+
+    /**
+     * Create an engine.
+     * @param pool The pool the bands act on.
+     * @param targetBands The number of bands wanted, at least two.
+     */
+    public CheckerboardEngine(ForkJoinPool pool, int targetBands)
+    {
+        if(targetBands < 2) {
+            throw new IllegalArgumentException("At least two bands are needed, not " + targetBands);
+        }
+        this.pool = pool;
+        this.targetBands = targetBands;
+        members = new ArrayList<>();
+        born = new ArrayList<>();
+    }
+
+    /**
+     * Let every live organism act once, band by band.
+     * @param organisms The organisms in the simulation.
+     * @param newOrganisms A list to receive newly born organisms.
+     * @param field The field the organisms live in.
+     * @param weather The weather during this step.
+     * @param isDayTime True if this step is during the day.
+     */
+    public void actAll(List<Organism> organisms, List<Organism> newOrganisms, Field field,
+                       Weather weather, boolean isDayTime)
+    {
+        if(bandOfRow == null || bandOfRow.length != field.getDepth()
+           || ++stepsSinceBalance >= REBALANCE_INTERVAL) {
+            rebalance(organisms, field);
+        }
+
+        int bands = bandStarts.length - 1;
+        for(int band = 0; band < bands; band++) {
+            members.get(band).clear();
+            born.get(band).clear();
+        }
+        for(Organism organism : organisms) {
+            if(organism.isAlive()) {
+                members.get(bandOfRow[field.rowOf(organism.getCell())]).add(organism);
+            }
+        }
+
+        metrics = field.getMetrics();
+        // Red bands first, then black.
+        field.setShared(true);
+        try {
+            for(int colour = 0; colour < 2; colour++) {
+                pool.invoke(new PhaseTask(colour, bands, weather, isDayTime));
+            }
+        }
+        finally {
+            field.setShared(false);
+        }
+        for(int band = 0; band < bands; band++) {
+            newOrganisms.addAll(born.get(band));
+        }
+    }
+
+    /**
+     * @return The number of bands currently in use.
+     */
+    public int getBandCount()
+    {
+        return bandStarts == null ? 0 : bandStarts.length - 1;
+    }
+
+    /**
+     * Move the band boundaries so each band holds about the same number
+     * of organisms, while keeping every band at least MIN_BAND_DEPTH deep.
+     * @param organisms The organisms, some of which may have died
+     *                  since the last step; only the live ones count.
+     * @param field The field they live in.
+     */
+    private void rebalance(List<Organism> organisms, Field field)
+    {
+        stepsSinceBalance = 0;
+        int depth = field.getDepth();
+        int bands = Math.max(1, Math.min(targetBands, depth / MIN_BAND_DEPTH));
+
+        int[] perRow = new int[depth];
+        long total = 0;
+        for(Organism organism : organisms) {
+            if(organism.isAlive()) {
+                perRow[field.rowOf(organism.getCell())]++;
+                total++;
+            }
+        }
+
+        bandStarts = new int[bands + 1];
+        int row = 0;
+        long seen = 0;
+        for(int band = 0; band < bands; band++) {
+            bandStarts[band] = row;
+            // Leave enough rows for the bands still to come.
+            int lastRow = depth - (bands - band - 1) * MIN_BAND_DEPTH;
+            long wanted = total * (band + 1) / bands;
+            int end = Math.min(row + MIN_BAND_DEPTH, lastRow);
+            for(int next = row; next < end; next++) {
+                seen += perRow[next];
+            }
+            while(end < lastRow && seen < wanted) {
+                seen += perRow[end];
+                end++;
+            }
+            row = end;
+        }
+        // The last band takes whatever rows remain.
+        bandStarts[bands] = depth;
+
+        bandOfRow = new int[depth];
+        for(int band = 0; band < bands; band++) {
+            for(int r = bandStarts[band]; r < bandStarts[band + 1]; r++) {
+                bandOfRow[r] = band;
+            }
+        }
+        while(members.size() < bands) {
+            members.add(new ArrayList<>());
+            born.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Let every band of one colour act, splitting the bands between threads.
+     * Tasks are never serialized, so they declare no serialVersionUID.
+     */
+    @SuppressWarnings("serial")
+    private class PhaseTask extends RecursiveAction
+    {
+        // The first band and one past the last band to consider.
+        private final int from, to;
+        // Which colour acts: 0 for even bands, 1 for odd bands.
+        private final int colour;
+        private final Weather weather;
+        private final boolean isDayTime;
+
+        /**
+         * Act every band of the given colour.
+         */
+        PhaseTask(int colour, int bands, Weather weather, boolean isDayTime)
+        {
+            this(colour, 0, bands, weather, isDayTime);
+        }
+
+        /**
+         * Act the bands of the given colour between from and to.
+         */
+        private PhaseTask(int colour, int from, int to, Weather weather, boolean isDayTime)
+        {
+            this.colour = colour;
+            this.from = from;
+            this.to = to;
+            this.weather = weather;
+            this.isDayTime = isDayTime;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if(to - from <= 2) {
+                for(int band = from; band < to; band++) {
+                    if(band % 2 == colour) {
+                        actBand(band);
+                    }
+                }
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PhaseTask(colour, from, middle, weather, isDayTime),
+                          new PhaseTask(colour, middle, to, weather, isDayTime));
+            }
+        }
+
+        /**
+         * Let every organism that started the step in the band act.
+         */
+        private void actBand(int band)
+        {
+            List<Organism> newborn = born.get(band);
+            for(Organism organism : members.get(band)) {
+                if(organism.isAlive()) {
+                    metrics.act(organism, newborn, weather, isDayTime);
+                }
+            }
+        }
+    }
+}
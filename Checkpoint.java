@@ -0,0 +1,380 @@
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A binary snapshot of a simulation, written to and read from disk
+ * through memory-mapped files.
+ *
+ * Taking a checkpoint copies the state into a buffer in memory, which
+ * takes a few milliseconds even for a large field. The buffer is then
+ * written to disk on a background thread while the simulation carries
+ * on. The file is written beside the target and moved over it once
+ * complete, so a crash part way through leaves the last checkpoint
+ * intact.
+ *
+ * A checkpoint holds the step, the weather, the root random stream and
+ * every live organism in the simulator's order: its species, cell,
+ * random stream, diseases and, for animals, age, food level and
+ * gender. Whether each organism occupies its cell is recorded too, so
+ * the field's occupancy is restored exactly. The field's totals of
+ * births, infections and deaths by species are saved as well, and put
+ * back after the organisms are recreated, since recreating them counts
+ * them again. Species and diseases are stored by name.
+ *
+ * Restoring into a simulator with the same field size and parameters
+ * resumes the run bit for bit when organisms act in the simulator's
+ * order, as the sequential engine has them do.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class Checkpoint
+{
+    // Marks the start of a checkpoint file: "PPAC".
+    private static final int MAGIC = 0x50504143;
+    // The version of the file layout.
+    private static final int VERSION = 2;
+    // The bytes each organism takes: code, flags, gender, cell, age,
+    // food level, random state and diseases.
+    private static final int RECORD_SIZE = 1 + 1 + 1 + 4 + 4 + 4 + 8 + 8;
+    // Set in an organism's flags if it occupies its cell.
+    private static final int OCCUPIES_CELL = 1;
+    // Set in an organism's flags if it is an animal.
+    private static final int IS_ANIMAL = 2;
+
+    // Writes checkpoints to disk, one at a time, off the simulation's thread.
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // The encoded state.
+    private final ByteBuffer data;
+
+    /**
+     * Wrap encoded state.
+     * @param data The encoded state, positioned at its start.
+     */
+    private Checkpoint(ByteBuffer data)
+    {
+        this.data = data;
+    }
+
+    /**
+     * Copy the state of a simulation into memory. This is the only
+     * part of taking a checkpoint that pauses the simulation.
+     * @param step The current step.
+     * @param weather The current weather.
+     * @param field The field, whose root random stream is saved too.
+     * @param organisms The organisms, in the order they act.
+     * @return The captured state.
+     */
+    public static Checkpoint capture(int step, Weather weather, Field field, List<Organism> organisms)
+    {
+        Parameters parameters = field.getParameters();
+        byte[][] speciesNames = new byte[Species.count()][];
+        // The header: ten ints, the random state and the unused species entry 0.
+        int size = 4 * 10 + 8 + 2;
+        int causes = DeathCause.values().length;
+        for(int code = 1; code < speciesNames.length; code++) {
+            speciesNames[code] = Species.classOf(code).getName().getBytes(StandardCharsets.UTF_8);
+            size += 2 + speciesNames[code].length + 8 * (2 + causes);
+        }
+        byte[][] diseaseNames = new byte[parameters.getDiseaseCount()][];
+        for(int i = 0; i < diseaseNames.length; i++) {
+            diseaseNames[i] = parameters.getDisease(i).getName().getBytes(StandardCharsets.UTF_8);
+            size += 2 + diseaseNames[i].length;
+        }
+        int live = 0;
+        for(Organism organism : organisms) {
+            if(organism.isAlive()) {
+                live++;
+            }
+        }
+        size += live * RECORD_SIZE;
+
+        ByteBuffer data = ByteBuffer.allocate(size);
+        data.putInt(MAGIC).putInt(VERSION);
+        data.putInt(field.getDepth()).putInt(field.getWidth());
+        data.putInt(step).putInt(weather.ordinal());
+        data.putLong(field.getRandom().getState());
+        putNames(data, speciesNames);
+        putNames(data, diseaseNames);
+        data.putInt(causes);
+        for(int code = 1; code < speciesNames.length; code++) {
+            data.putLong(field.getBirths(code)).putLong(field.getInfections(code));
+            for(DeathCause cause : DeathCause.values()) {
+                data.putLong(field.getDeaths(code, cause));
+            }
+        }
+        data.putInt(live);
+        for(Organism organism : organisms) {
+            if(!organism.isAlive()) {
+                continue;
+            }
+            int cell = organism.getCell();
+            int flags = field.getObjectAt(cell) == organism ? OCCUPIES_CELL : 0;
+            data.put(Species.codeOf(organism.getClass()));
+            if(organism instanceof Animal) {
+                Animal animal = (Animal) organism;
+                data.put((byte) (flags | IS_ANIMAL));
+                data.put((byte) animal.getGender().ordinal());
+                data.putInt(cell).putInt(animal.getAge()).putInt(animal.getFoodLevel());
+            }
+            else {
+                data.put((byte) flags).put((byte) 0);
+                data.putInt(cell).putInt(0).putInt(0);
+            }
+            data.putLong(organism.getRandom().getState());
+            data.putLong(organism.getDiseaseBits());
+        }
+        data.flip();
+        return new Checkpoint(data);
+    }
+
+    /**
+     * Write the captured state to a file on the background thread.
+     * @param file The file to write.
+     * @return A future that completes with the file once it is on disk.
+     */
+    public Future<Path> writeAsync(Path file)
+    {
+        ByteBuffer contents = data.duplicate();
+        return writer.submit(() -> {
+            write(contents, file);
+            return file;
+        });
+    }
+
+    /**
+     * Read a checkpoint from a file.
+     * @param file The file to read.
+     * @return The checkpoint.
+     * @throws IOException If the file cannot be read or is not a checkpoint.
+     */
+    public static Checkpoint read(Path file) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(mapped.remaining() < 8 || mapped.getInt() != MAGIC) {
+                throw new IOException(file + " is not a checkpoint");
+            }
+            int version = mapped.getInt();
+            if(version != VERSION) {
+                throw new IOException(file + " has version " + version + ", not " + VERSION);
+            }
+            mapped.rewind();
+            return new Checkpoint(mapped);
+        }
+    }
+
+    /**
+     * @return The step the checkpoint was taken at.
+     */
+    public int getStep()
+    {
+        return data.getInt(16);
+    }
+
+    /**
+     * @return The weather when the checkpoint was taken.
+     */
+    public Weather getWeather()
+    {
+        return Weather.values()[data.getInt(20)];
+    }
+
+    /**
+     * Put the checkpoint's organisms into an empty field and list, and
+     * set the field's random stream and totals back to where they were.
+     * @param field The field, of the size the checkpoint was taken with.
+     * @param organisms Receives the organisms, in the order they act.
+     * @throws IOException If the checkpoint does not fit the field.
+     */
+    public void restore(Field field, List<Organism> organisms) throws IOException
+    {
+        ByteBuffer in = data.duplicate();
+        in.position(8);
+        int depth = in.getInt(), width = in.getInt();
+        if(depth != field.getDepth() || width != field.getWidth()) {
+            throw new IOException("The checkpoint is of a " + depth + "x" + width
+                                  + " field, not " + field.getDepth() + "x" + field.getWidth());
+        }
+        int step = in.getInt();
+        in.getInt();
+        field.getRandom().setState(in.getLong());
+        field.setStep(step);
+
+        String[] speciesNames = getNames(in);
+        Constructor<?>[] constructors = new Constructor<?>[speciesNames.length];
+        for(int code = 1; code < speciesNames.length; code++) {
+            constructors[code] = constructorOf(speciesNames[code]);
+        }
+        String[] diseaseNames = getNames(in);
+        Disease[] diseases = new Disease[diseaseNames.length];
+        Parameters parameters = field.getParameters();
+        for(int i = 0; i < diseaseNames.length; i++) {
+            for(int j = 0; j < parameters.getDiseaseCount(); j++) {
+                if(parameters.getDisease(j).getName().equals(diseaseNames[i])) {
+                    diseases[i] = parameters.getDisease(j);
+                }
+            }
+            if(diseases[i] == null) {
+                throw new IOException("No disease called " + diseaseNames[i]);
+            }
+        }
+        int causes = in.getInt();
+        if(causes != DeathCause.values().length) {
+            throw new IOException("The checkpoint has " + causes + " causes of death, not "
+                                  + DeathCause.values().length);
+        }
+        long[] births = new long[speciesNames.length];
+        long[] infections = new long[speciesNames.length];
+        long[][] deaths = new long[speciesNames.length][causes];
+        for(int code = 1; code < speciesNames.length; code++) {
+            births[code] = in.getLong();
+            infections[code] = in.getLong();
+            for(int cause = 0; cause < causes; cause++) {
+                deaths[code][cause] = in.getLong();
+            }
+        }
+
+        int count = in.getInt();
+        boolean[] occupies = new boolean[count];
+        int first = organisms.size();
+        for(int i = 0; i < count; i++) {
+            int code = in.get();
+            int flags = in.get();
+            Gender gender = Gender.values()[in.get()];
+            int cell = in.getInt();
+            int age = in.getInt();
+            int foodLevel = in.getInt();
+            long randState = in.getLong();
+            long diseaseBits = in.getLong();
+
+            Organism organism = create(constructors[code], field, field.locationOf(cell));
+            organism.getRandom().setState(randState);
+            if((flags & IS_ANIMAL) != 0) {
+                ((Animal) organism).restoreState(age, foodLevel, gender);
+            }
+            for(int bit = 0; bit < diseases.length; bit++) {
+                if((diseaseBits & (1L << bit)) != 0) {
+                    organism.giveDisease(diseases[bit]);
+                }
+            }
+            occupies[i] = (flags & OCCUPIES_CELL) != 0;
+            organisms.add(organism);
+        }
+        // Put back the organisms that held their cells, over any that were displaced.
+        for(int i = 0; i < count; i++) {
+            if(occupies[i]) {
+                Organism organism = organisms.get(first + i);
+                field.place(organism, organism.getCell());
+            }
+        }
+        // Recreating the organisms counted their births and diseases again.
+        for(int code = 1; code < speciesNames.length; code++) {
+            field.setTotals(Species.codeOf(constructors[code].getDeclaringClass()),
+                            births[code], infections[code], deaths[code]);
+        }
+    }
+
+    /**
+     * Write a buffer to a file through a memory mapping, replacing the
+     * file only once the whole buffer is on disk.
+     */
+    private static void write(ByteBuffer contents, Path file) throws IOException
+    {
+        Path partial = file.resolveSibling(file.getFileName() + ".partial");
+        try(FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                                                   StandardOpenOption.TRUNCATE_EXISTING,
+                                                   StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, contents.remaining());
+            mapped.put(contents);
+            mapped.force();
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Write a count of names followed by each name's length and bytes.
+     * Entry 0 of the species names is unused and written empty.
+     */
+    private static void putNames(ByteBuffer data, byte[][] names)
+    {
+        data.putInt(names.length);
+        for(byte[] name : names) {
+            int length = name == null ? 0 : name.length;
+            data.putShort((short) length);
+            if(name != null) {
+                data.put(name);
+            }
+        }
+    }
+
+    /**
+     * Read names written by putNames.
+     */
+    private static String[] getNames(ByteBuffer data)
+    {
+        String[] names = new String[data.getInt()];
+        for(int i = 0; i < names.length; i++) {
+            byte[] name = new byte[data.getShort()];
+            data.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    /**
+     * Find the constructor used to recreate organisms of a species:
+     * (boolean randomAge, Field, Location) for animals and
+     * (Field, Location) for plants.
+     */
+    private static Constructor<?> constructorOf(String name) throws IOException
+    {
+        try {
+            Class<?> species = Class.forName(name);
+            try {
+                return species.getConstructor(boolean.class, Field.class, Location.class);
+            }
+            catch(NoSuchMethodException e) {
+                return species.getConstructor(Field.class, Location.class);
+            }
+        }
+        catch(ClassNotFoundException | NoSuchMethodException e) {
+            throw new IOException("Cannot recreate organisms of species " + name, e);
+        }
+    }
+
+    /**
+     * Create an organism with a constructor found by constructorOf.
+     */
+    private static Organism create(Constructor<?> constructor, Field field, Location location)
+        throws IOException
+    {
+        try {
+            if(constructor.getParameterCount() == 3) {
+                return (Organism) constructor.newInstance(false, field, location);
+            }
+            return (Organism) constructor.newInstance(field, location);
+        }
+        catch(InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IOException("Cannot recreate a " + constructor.getDeclaringClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * The ways an organism can die.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public enum DeathCause
+{
+    OLD_AGE,
+    STARVATION,
+    PREDATION,
+    SNOW,
+    DROUGHT,
+    DISEASE,
+    OVERCROWDING
+}
@@ -8,6 +8,9 @@ public class Deer extends Animal
 {
     // Probability of deer spawning in location upon simulation creation
     public static final double creationProbability = 0.06;
+    // The traits a deer has unless the simulation's parameters say otherwise
+    public static final SpeciesTraits DEFAULT_TRAITS =
+        new SpeciesTraits(200, 17, 0.23, 6, 2, 0.02, 0.0001, creationProbability);
     /**
      * Create a snake. A snake can be created as a new born (age zero
      * and not hungry) or with a random age and food level.
@@ -18,7 +21,7 @@ public class Deer extends Animal
      */
     public Deer(boolean randomAge, Field field, Location location)
     {
-        super(randomAge, field, location, 200, 17, 0.23, 6, 2, 0.02, 0.0001);
+        super(randomAge, field, location, field.getParameters().traitsOf(Deer.class));
     }
 
     /**
@@ -1,4 +1,4 @@
-import java.util.*;
+import java.util.random.RandomGenerator;
 public class Disease
 {
     // The chance of an animal dying from the disease at any step
@@ -27,12 +27,45 @@ public class Disease
      */
     public void affect(Organism infected)
     {
-        if(randomizer.nextDouble() <= mortalityRate)
+        if(infected.getRandom().nextDouble() <= mortalityRate)
         {
-            infected.setDead();
+            infected.setDead(DeathCause.DISEASE);
         }
     }
 
+    /**
+     * Return a copy of this disease with one rate changed.
+     * @param property Either "contagiousness" or "mortalityRate".
+     * @param value The new rate.
+     * @return The changed copy.
+     */
+    public Disease with(String property, double value)
+    {
+        if(property.equals("contagiousness")) {
+            return new Disease(value, mortalityRate, name);
+        }
+        else if(property.equals("mortalityRate")) {
+            return new Disease(contagiousness, value, name);
+        }
+        throw new IllegalArgumentException("Unknown disease rate: " + property);
+    }
+
+    /**
+     * Return one of the disease's rates by name.
+     * @param property Either "contagiousness" or "mortalityRate".
+     * @return The rate.
+     */
+    public double get(String property)
+    {
+        if(property.equals("contagiousness")) {
+            return contagiousness;
+        }
+        else if(property.equals("mortalityRate")) {
+            return mortalityRate;
+        }
+        throw new IllegalArgumentException("Unknown disease rate: " + property);
+    }
+
     /**
      * Returns the name of the disease
      * @return The name of the disease
@@ -44,11 +77,12 @@ public class Disease
 
     /**
      * Calculates randomly whether or not the disease is to be spread based off contagiousness
+     * @param rand The random number generator to draw from
      * @return True if the disease would randomly spread to another individual
      */
-    public boolean wouldSpread()
+    public boolean wouldSpread(RandomGenerator rand)
     {
-        return (randomizer.nextDouble() <= contagiousness);
+        return (rand.nextDouble() <= contagiousness);
     }
 
     // List of disease which can be contracted in simulation
@@ -58,19 +92,12 @@ public class Disease
             new Disease(0.9, 0.15, "Ebola")
     };
 
-    private static Random randomizer = Randomizer.getRandom();
-
     /**
-     * Returns a random disease
-     * @return a random disease
+     * Returns the diseases a simulation has unless its parameters say otherwise
+     * @return a new array of the default diseases
      */
-    public static Disease getRandomDisease()
+    public static Disease[] defaultDiseases()
     {
-        int numberOfDiseases = allDiseases.length;
-        if(numberOfDiseases == 0)
-        {
-            return null;
-        }
-        return allDiseases[randomizer.nextInt(numberOfDiseases)];
+        return allDiseases.clone();
     }
 }
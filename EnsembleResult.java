@@ -0,0 +1,145 @@
+import java.util.Arrays;
+
+/**
+ * The populations of a set of simulation runs, combined step by step.
+ * For each step and species it keeps the mean population across runs
+ * and a 95% confidence interval for that mean, using the normal
+ * approximation. Only a running mean and sum of squared deviations
+ * are kept, updated run by run with Welford's method, so the memory
+ * used does not grow with the number of runs and large populations
+ * with a small spread keep their precision.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class EnsembleResult
+{
+    // The z value for a two-sided 95% interval.
+    private static final double Z_95 = 1.96;
+
+    // The number of runs combined so far.
+    private int runs;
+    // The mean of each population and the sum of its squared deviations
+    // from the mean, by step then species code.
+    private double[][] means;
+    private double[][] deviations;
+
+    /**
+     * Create an empty result.
+     * @param steps The number of steps each run takes.
+     */
+    public EnsembleResult(int steps)
+    {
+        means = new double[steps + 1][0];
+        deviations = new double[steps + 1][0];
+    }
+
+    /**
+     * Combine the populations of one more run.
+     * @param counts The count of each species, indexed by step then species code.
+     */
+    public void add(int[][] counts)
+    {
+        int combined = runs + 1;
+        for(int step = 0; step < means.length; step++) {
+            int[] atStep = counts[step];
+            if(means[step].length < atStep.length) {
+                // Earlier runs had none of the new species, so a mean
+                // and deviation of 0 is right for them.
+                means[step] = Arrays.copyOf(means[step], atStep.length);
+                deviations[step] = Arrays.copyOf(deviations[step], atStep.length);
+            }
+            double[] mean = means[step];
+            double[] deviation = deviations[step];
+            for(int code = 1; code < mean.length; code++) {
+                double count = code < atStep.length ? atStep[code] : 0;
+                double delta = count - mean[code];
+                mean[code] += delta / combined;
+                deviation[code] += delta * (count - mean[code]);
+            }
+        }
+        runs = combined;
+    }
+
+    /**
+     * @return The number of runs combined.
+     */
+    public int getRuns()
+    {
+        return runs;
+    }
+
+    /**
+     * @return The number of steps each run took.
+     */
+    public int getSteps()
+    {
+        return means.length - 1;
+    }
+
+    /**
+     * Return the mean population of a species at a step.
+     * @param step The step, from 0 (the starting state) to getSteps().
+     * @param species The class of organism.
+     * @return The mean across runs.
+     */
+    public double getMean(int step, Class<?> species)
+    {
+        return entry(means, step, species);
+    }
+
+    /**
+     * Return half the width of the 95% confidence interval for the
+     * mean population of a species at a step.
+     * @param step The step, from 0 (the starting state) to getSteps().
+     * @param species The class of organism.
+     * @return The half-width, or 0 if fewer than two runs were combined.
+     */
+    public double getHalfWidth(int step, Class<?> species)
+    {
+        if(runs < 2) {
+            return 0;
+        }
+        double variance = entry(deviations, step, species) / (runs - 1);
+        return Z_95 * Math.sqrt(variance / runs);
+    }
+
+    /**
+     * Return the 95% confidence interval for the mean population of a
+     * species at a step.
+     * @param step The step, from 0 (the starting state) to getSteps().
+     * @param species The class of organism.
+     * @return The lower and upper bounds.
+     */
+    public double[] getConfidenceInterval(int step, Class<?> species)
+    {
+        double mean = getMean(step, species);
+        double halfWidth = getHalfWidth(step, species);
+        return new double[] {mean - halfWidth, mean + halfWidth};
+    }
+
+    /**
+     * Describe the mean population of every species at a step.
+     * @param step The step to describe.
+     * @return A string such as "Tiger: 120.5 +/- 3.2 Plant: ...".
+     */
+    public String getDetails(int step)
+    {
+        StringBuilder buffer = new StringBuilder();
+        for(int code = 1; code < means[step].length; code++) {
+            Class<?> species = Species.classOf(code);
+            buffer.append(species.getName());
+            buffer.append(String.format(": %.1f +/- %.1f ", getMean(step, species), getHalfWidth(step, species)));
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Look up one species' entry in the table of means or of deviations.
+     */
+    private double entry(double[][] table, int step, Class<?> species)
+    {
+        int code = Species.codeOf(species);
+        return code < table[step].length ? table[step][code] : 0;
+    }
+}
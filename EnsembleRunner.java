@@ -0,0 +1,119 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run many independent simulations at once, each with its own seed,
+ * and combine their population counts into one EnsembleResult.
+ *
+ * Every run is a headless Simulator with its own random number
+ * generator, so runs share no state and a pool of worker threads can
+ * keep every core busy. Each run takes a fixed number of steps, even
+ * after it stops being viable, so every run contributes to every step.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class EnsembleRunner
+{
+    // The size of the field in every run.
+    private final int depth, width;
+    // The number of steps every run takes.
+    private final int steps;
+    // The number of runs allowed to proceed at once.
+    private final int threads;
+
+    /**
+     * Create a runner that uses one thread per available processor.
+     * @param depth Depth of each run's field.
+     * @param width Width of each run's field.
+     * @param steps The number of steps each run takes.
+     */
+    public EnsembleRunner(int depth, int width, int steps)
+    {
+        this(depth, width, steps, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a runner.
+     * @param depth Depth of each run's field.
+     * @param width Width of each run's field.
+     * @param steps The number of steps each run takes.
+     * @param threads The number of runs allowed to proceed at once.
+     */
+    public EnsembleRunner(int depth, int width, int steps, int threads)
+    {
+        this.depth = depth;
+        this.width = width;
+        this.steps = steps;
+        this.threads = threads;
+    }
+
+    /**
+     * Run simulations with consecutive seeds.
+     * @param runs The number of simulations.
+     * @param firstSeed The seed of the first simulation.
+     * @return The combined populations of every run.
+     */
+    public EnsembleResult run(int runs, long firstSeed)
+    {
+        long[] seeds = new long[runs];
+        for(int i = 0; i < runs; i++) {
+            seeds[i] = firstSeed + i;
+        }
+        return run(seeds);
+    }
+
+    /**
+     * Run one simulation per seed.
+     * The result does not depend on the number of threads.
+     * @param seeds The seed of each simulation.
+     * @return The combined populations of every run.
+     */
+    public EnsembleResult run(long[] seeds)
+    {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<int[][]>> runs = new ArrayList<>();
+            for(long seed : seeds) {
+                runs.add(workers.submit(() -> runOne(seed)));
+            }
+            // Runs are combined in seed order, whatever order they finish in.
+            EnsembleResult result = new EnsembleResult(steps);
+            for(Future<int[][]> run : runs) {
+                result.add(run.get());
+            }
+            return result;
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ensemble", e);
+        }
+        catch(ExecutionException e) {
+            throw new IllegalStateException("A simulation in the ensemble failed", e.getCause());
+        }
+        finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Run a single simulation and record its population at every step.
+     * @param seed The seed for the simulation.
+     * @return The count of each species, indexed by step then species code.
+     */
+    private int[][] runOne(long seed)
+    {
+        Simulator simulator = new Simulator(depth, width, seed);
+        int[][] counts = new int[steps + 1][];
+        counts[0] = simulator.getField().getPopulations();
+        for(int step = 1; step <= steps; step++) {
+            simulator.simulateOneStep();
+            counts[step] = simulator.getField().getPopulations();
+        }
+        return counts;
+    }
+}
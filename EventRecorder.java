@@ -0,0 +1,338 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records every change to a field as a compact binary log, so that a
+ * long run can be watched again with a Replayer without running it.
+ *
+ * Organisms report their births, moves, deaths and infections as they
+ * happen, and the simulator ends each step with its number and weather.
+ * Every few steps a keyframe holding the whole field is written, so a
+ * replayer can jump to any step by starting from the keyframe before
+ * it. Numbers are written as variable-length integers and each cell
+ * as the difference from the cell of the previous event, which keeps
+ * most events to three or four bytes.
+ *
+ * Events are appended under a lock, so organisms acting on several
+ * threads may record at once. Each step's events are written to the
+ * file when the step ends.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class EventRecorder implements Closeable
+{
+    // Marks the start of an event log: "PPAE".
+    static final int MAGIC = 0x50504145;
+    // The kinds of record in the log.
+    static final int STEP_END = 0;
+    static final int KEYFRAME = 1;
+    static final int SPECIES = 2;
+    static final int DISEASE = 3;
+    static final int BIRTH = 4;
+    static final int MOVE = 5;
+    static final int DEATH = 6;
+    static final int INFECTION = 7;
+    // The number of steps between keyframes unless told otherwise.
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+
+    // The file being written.
+    private final FileChannel channel;
+    // The number of steps between keyframes.
+    private final int keyframeInterval;
+    // Records not yet written to the file.
+    private byte[] buffer;
+    private int length;
+    // The cell of the last event, which the next event's cell is written relative to.
+    private int lastCell;
+    // Which species codes have had their names written.
+    private boolean[] namedSpecies;
+    // The number given to each disease whose name has been written.
+    private final Map<Disease, Integer> diseaseIds;
+
+    /**
+     * Start recording to a file, with the default keyframe interval.
+     * @param file The file to write, replacing any already there.
+     * @throws IOException If the file cannot be created.
+     */
+    public EventRecorder(Path file) throws IOException
+    {
+        this(file, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Start recording to a file.
+     * @param file The file to write, replacing any already there.
+     * @param keyframeInterval The number of steps between keyframes.
+     *                         Shorter intervals make seeking faster
+     *                         and the log larger.
+     * @throws IOException If the file cannot be created.
+     */
+    public EventRecorder(Path file, int keyframeInterval) throws IOException
+    {
+        if(keyframeInterval < 1) {
+            throw new IllegalArgumentException("The keyframe interval must be at least 1, not " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = new byte[1 << 16];
+        namedSpecies = new boolean[0];
+        diseaseIds = new HashMap<>();
+        writeInt(MAGIC);
+    }
+
+    /**
+     * Record an organism placed in the field for the first time.
+     * @param code The organism's species code.
+     * @param cell Its cell.
+     */
+    public synchronized void birth(byte code, int cell)
+    {
+        nameSpecies(code);
+        writeByte(BIRTH);
+        writeByte(code);
+        writeCell(cell);
+    }
+
+    /**
+     * Record an organism moving.
+     * @param from The cell it left.
+     * @param to The cell it moved to.
+     */
+    public synchronized void move(int from, int to)
+    {
+        writeByte(MOVE);
+        writeCell(from);
+        writeVarint(zigzag(to - from));
+        lastCell = to;
+    }
+
+    /**
+     * Record an organism dying.
+     * @param cell The cell it died in.
+     * @param cause What killed it.
+     */
+    public synchronized void death(int cell, DeathCause cause)
+    {
+        writeByte(DEATH);
+        writeByte(cause.ordinal());
+        writeCell(cell);
+    }
+
+    /**
+     * Record an organism catching a disease.
+     * @param cell The organism's cell.
+     * @param disease The disease it caught.
+     */
+    public synchronized void infection(int cell, Disease disease)
+    {
+        Integer id = diseaseIds.get(disease);
+        if(id == null) {
+            id = diseaseIds.size();
+            diseaseIds.put(disease, id);
+            writeByte(DISEASE);
+            writeVarint(id);
+            writeName(disease.getName());
+        }
+        writeByte(INFECTION);
+        writeVarint(id);
+        writeCell(cell);
+    }
+
+    /**
+     * Finish a step, writing a keyframe if one is due, and write the
+     * step's records to the file.
+     * @param step The step that has ended.
+     * @param weather The weather during the step.
+     * @param field The field as the step left it.
+     */
+    public synchronized void endStep(int step, Weather weather, Field field)
+    {
+        writeByte(STEP_END);
+        writeVarint(step);
+        writeByte(weather.ordinal());
+        if(step % keyframeInterval == 0) {
+            writeKeyframe(step, weather, field);
+        }
+        flush();
+    }
+
+    /**
+     * Write a keyframe holding the whole field, such as when recording
+     * starts or the simulation is reset or restored.
+     * @param step The current step.
+     * @param weather The current weather.
+     * @param field The field.
+     */
+    public synchronized void keyframe(int step, Weather weather, Field field)
+    {
+        writeKeyframe(step, weather, field);
+        flush();
+    }
+
+    /**
+     * Write any remaining records and close the file.
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Write the species codes of every cell, run-length encoded.
+     */
+    private void writeKeyframe(int step, Weather weather, Field field)
+    {
+        int size = field.getSize();
+        for(int cell = 0; cell < size; cell++) {
+            nameSpecies(field.getSpeciesAt(cell));
+        }
+        writeByte(KEYFRAME);
+        writeVarint(step);
+        writeByte(weather.ordinal());
+        writeVarint(field.getDepth());
+        writeVarint(field.getWidth());
+        int cell = 0;
+        while(cell < size) {
+            byte code = field.getSpeciesAt(cell);
+            int run = 1;
+            while(cell + run < size && field.getSpeciesAt(cell + run) == code) {
+                run++;
+            }
+            writeVarint(run);
+            writeByte(code);
+            cell += run;
+        }
+        // Cells after a keyframe are written relative to cell 0.
+        lastCell = 0;
+    }
+
+    /**
+     * Write the name of a species the first time its code appears.
+     */
+    private void nameSpecies(byte code)
+    {
+        if(code == Species.NONE) {
+            return;
+        }
+        if(code >= namedSpecies.length) {
+            namedSpecies = Arrays.copyOf(namedSpecies, code + 1);
+        }
+        if(!namedSpecies[code]) {
+            namedSpecies[code] = true;
+            writeByte(SPECIES);
+            writeByte(code);
+            writeName(Species.classOf(code).getName());
+        }
+    }
+
+    /**
+     * Write a cell as the difference from the last cell written.
+     */
+    private void writeCell(int cell)
+    {
+        writeVarint(zigzag(cell - lastCell));
+        lastCell = cell;
+    }
+
+    /**
+     * Write a name as its length and UTF-8 bytes.
+     */
+    private void writeName(String name)
+    {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        ensureSpace(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    /**
+     * Write a non-negative number seven bits at a time, low bits first.
+     */
+    private void writeVarint(int value)
+    {
+        ensureSpace(5);
+        while((value & ~0x7F) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    /**
+     * Write one byte.
+     */
+    private void writeByte(int value)
+    {
+        ensureSpace(1);
+        buffer[length++] = (byte) value;
+    }
+
+    /**
+     * Write four bytes, high byte first.
+     */
+    private void writeInt(int value)
+    {
+        for(int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(value >>> shift);
+        }
+    }
+
+    /**
+     * Make room for the given number of bytes in the buffer.
+     */
+    private void ensureSpace(int bytes)
+    {
+        if(length + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(length + bytes, buffer.length * 2));
+        }
+    }
+
+    /**
+     * Write the buffered records to the file.
+     */
+    private void flush()
+    {
+        try {
+            ByteBuffer out = ByteBuffer.wrap(buffer, 0, length);
+            while(out.hasRemaining()) {
+                channel.write(out);
+            }
+            length = 0;
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException("Cannot write the event log", e);
+        }
+    }
+
+    /**
+     * Map a signed number to an unsigned one so small negative
+     * numbers stay small: 0, -1, 1, -2 become 0, 1, 2, 3.
+     */
+    static int zigzag(int value)
+    {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Reverse zigzag.
+     */
+    static int unzigzag(int value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
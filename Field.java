@@ -1,57 +1,476 @@
-import java.util.Collections;
-import java.util.LinkedList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 
 /**
  * Represent a rectangular grid of field positions.
  * Each position is able to store a single animal.
  * 
+ * Positions can be given either as Location objects or as cell
+ * indices. A cell index is the row-major position row * width + col,
+ * and is what the simulation uses internally so that moving around
+ * the field does not create Location objects.
+ * 
+ * Alongside the species of each cell the field keeps a bitplane for
+ * each species, with one bit per cell set where that species is, and
+ * one for the free cells. Questions about the whole grid, such as how
+ * many deer there are, where the tigers are or which cells are free,
+ * are answered from the planes a word of 64 cells at a time rather
+ * than one cell at a time.
+ * 
+ * Each cell also has a summary of its eight neighbours: how many of
+ * them are of each kind, where a kind is a species and a gender. The
+ * summaries are updated as occupants come and go, so whether a cell
+ * has a mate or prey next to it is a single read. Each kind is given
+ * one of SUMMARY_SLOTS slots of four bits the first time it is placed.
+ * Should there ever be more kinds than slots, the summaries are no
+ * longer complete and the checks fall back to looking at the neighbours.
+ * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
 public class Field
 {
-    // A random number generator for providing random locations.
-    private static final Random rand = Randomizer.getRandom();
+    // The number of causes of death.
+    private static final int CAUSES = DeathCause.values().length;
+    // Atomic access to the words of the bitplanes, for when organisms
+    // on several threads may change cells sharing a word at once.
+    private static final VarHandle PLANE_WORD = MethodHandles.arrayElementVarHandle(long[].class);
+    // Atomic access to the neighbourhood summaries, for the same reason.
+    private static final VarHandle SUMMARY = MethodHandles.arrayElementVarHandle(long[].class);
+    // The number of kinds of neighbour a summary counts, in four bits each.
+    private static final int SUMMARY_SLOTS = 16;
+
+    // The root random stream, from which every organism's stream is split.
+    private final RandomStream rand;
+    // The step the simulation is on, used to split organisms' streams.
+    private int step;
+    // For each cell, the step plus one in which an organism was last
+    // created there, and how many have been created there in that step.
+    private final int[] creationSteps;
+    private final int[] creationsInStep;
+    // The traits of the species and the diseases found in this field.
+    private final Parameters parameters;
+    // The age, food level and other changing state of the animals in this field.
+    private final AnimalComponents animalComponents;
+    // Records every change to the field, or null if nothing is recording.
+    private EventRecorder recorder;
+    // The number of live organisms of each species, indexed by species code.
+    // Organisms on several threads update them at once, so each is a LongAdder.
+    private final LongAdder[] populations;
+    // Totals since the field was cleared of births and infections by species code,
+    // and of deaths by species code and cause.
+    private final LongAdder[] births;
+    private final LongAdder[] infections;
+    private final LongAdder[] deaths;
+    // Timings of the simulation running in this field.
+    private final StepMetrics metrics;
     
     // The depth and width of the field.
     private int depth, width;
-    // Storage for the animals.
-    private Object[][] field;
+    // Species code of the occupant of each location, stored row-major.
+    // Species.NONE marks an empty location.
+    private byte[] species;
+    // The occupant of each location, stored row-major alongside species.
+    private Organism[] occupants;
+    // A bitplane per species code, with one bit per cell set where that
+    // species is, or null until the species is first placed. The plane
+    // of Species.NONE marks the free cells. The bits past the last cell
+    // are never set.
+    private final long[][] planes;
+    // The number of words in each bitplane.
+    private final int planeWords;
+    // The number of neighbours of each kind around each cell, four bits a slot.
+    private final long[] summaries;
+    // The slot of the kind of each cell's occupant, or -1 if it is not counted.
+    private final byte[] slots;
+    // The slot of each kind plus one, indexed by species code * 2 + gender index.
+    // 0 means the kind has no slot yet, and -1 that there was none left for it.
+    private final byte[] slotOfKind;
+    // The number of slots handed out.
+    private int slotCount;
+    // For each trophic level, the bits of summaries counting kinds at that level.
+    // The array is replaced, never changed, when a slot is handed out.
+    private volatile long[] levelMasks;
+    // Whether some kind was left without a slot.
+    private volatile boolean summariesIncomplete;
+    // Whether organisms on several threads may be changing the field at
+    // once, so that the bitplanes and summaries must be updated atomically.
+    private boolean shared;
 
     /**
-     * Represent a field of the given dimensions.
+     * Represent a field of the given dimensions, using the shared
+     * random number generator.
      * @param depth The depth of the field.
      * @param width The width of the field.
      */
     public Field(int depth, int width)
     {
+        this(depth, width, Randomizer.getRandom());
+    }
+
+    /**
+     * Represent a field of the given dimensions.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param rand The root random stream for this field and
+     *             everything that lives in it.
+     */
+    public Field(int depth, int width, RandomStream rand)
+    {
+        this(depth, width, rand, Parameters.defaults());
+    }
+
+    /**
+     * Represent a field of the given dimensions.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param rand The root random stream for this field and
+     *             everything that lives in it.
+     * @param parameters The traits of the species and the diseases
+     *                   found in this field.
+     */
+    public Field(int depth, int width, RandomStream rand, Parameters parameters)
+    {
+        if((long) depth * width > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A field of " + depth + "x" + width
+                                               + " has too many cells to index");
+        }
         this.depth = depth;
         this.width = width;
-        field = new Object[depth][width];
+        this.rand = rand;
+        this.parameters = parameters;
+        species = new byte[depth * width];
+        occupants = new Organism[depth * width];
+        creationSteps = new int[depth * width];
+        creationsInStep = new int[depth * width];
+        planeWords = (depth * width + 63) >>> 6;
+        planes = new long[Species.MAX_CODE + 1][];
+        planes[Species.NONE] = new long[planeWords];
+        clearPlanes();
+        summaries = new long[depth * width];
+        slots = new byte[depth * width];
+        Arrays.fill(slots, (byte) -1);
+        slotOfKind = new byte[(Species.MAX_CODE + 1) * 2];
+        levelMasks = new long[0];
+        animalComponents = new AnimalComponents();
+        populations = newCounters(Species.MAX_CODE + 1);
+        births = newCounters(Species.MAX_CODE + 1);
+        infections = newCounters(Species.MAX_CODE + 1);
+        deaths = newCounters((Species.MAX_CODE + 1) * CAUSES);
+        metrics = new StepMetrics(this);
+    }
+
+    /**
+     * Create an array of counters set to zero.
+     */
+    private static LongAdder[] newCounters(int count)
+    {
+        LongAdder[] counters = new LongAdder[count];
+        for(int i = 0; i < count; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
     }
 
 
     /**
-     * Empty the field.
+     * Empty the field, forgetting every animal's components too.
      */
     public void clear()
     {
-        for(int row = 0; row < depth; row++) {
-            for(int col = 0; col < width; col++) {
-                field[row][col] = null;
+        Arrays.fill(species, Species.NONE);
+        Arrays.fill(occupants, null);
+        Arrays.fill(creationSteps, 0);
+        clearPlanes();
+        Arrays.fill(summaries, 0);
+        Arrays.fill(slots, (byte) -1);
+        animalComponents.clear();
+        for(LongAdder[] counters : new LongAdder[][] { populations, births, infections, deaths }) {
+            for(LongAdder counter : counters) {
+                counter.reset();
             }
         }
     }
     
+    /**
+     * Mark every cell free in the bitplanes.
+     */
+    private void clearPlanes()
+    {
+        for(long[] plane : planes) {
+            if(plane != null) {
+                Arrays.fill(plane, 0);
+            }
+        }
+        setBits(planes[Species.NONE], 0, species.length);
+    }
+
+    /**
+     * Return the bitplane of a species, making it if the species has
+     * not been placed in this field before.
+     * @param code A species code.
+     * @return The species' bitplane.
+     */
+    private long[] planeOf(byte code)
+    {
+        long[] plane = planes[code];
+        return plane != null ? plane : newPlane(code);
+    }
+
+    /**
+     * Make the bitplane of a species, unless another thread just has.
+     * @param code A species code.
+     * @return The species' bitplane.
+     */
+    private synchronized long[] newPlane(byte code)
+    {
+        if(planes[code] == null) {
+            planes[code] = new long[planeWords];
+        }
+        return planes[code];
+    }
+
+    /**
+     * Set the species code of a cell, moving its bit from the plane of
+     * the old species to that of the new one.
+     * @param cell The index of the cell.
+     * @param code The species code, or Species.NONE for an empty cell.
+     */
+    private void setSpecies(int cell, byte code)
+    {
+        byte old = species[cell];
+        species[cell] = code;
+        if(old != code) {
+            long bit = 1L << cell;
+            int word = cell >>> 6;
+            if(shared) {
+                PLANE_WORD.getAndBitwiseAnd(planes[old], word, ~bit);
+                PLANE_WORD.getAndBitwiseOr(planeOf(code), word, bit);
+            }
+            else {
+                planes[old][word] &= ~bit;
+                planeOf(code)[word] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Set the slot counted for a cell's occupant, moving it from the
+     * summaries of the cell's neighbours under its old slot to its new one.
+     * @param cell The index of the cell.
+     * @param slot The occupant's slot, or -1 if it is not counted.
+     */
+    private void setSlot(int cell, int slot)
+    {
+        int old = slots[cell];
+        if(old == slot) {
+            return;
+        }
+        slots[cell] = (byte) slot;
+        // Counts never exceed eight, so one addition moves a neighbour between slots.
+        long change = (slot < 0 ? 0 : 1L << (slot * 4)) - (old < 0 ? 0 : 1L << (old * 4));
+        int row = cell / width;
+        int col = cell - row * width;
+        int top = Math.max(row - 1, 0), bottom = Math.min(row + 1, depth - 1);
+        int left = Math.max(col - 1, 0), right = Math.min(col + 1, width - 1);
+        for(int r = top; r <= bottom; r++) {
+            for(int c = left; c <= right; c++) {
+                int neighbour = r * width + c;
+                if(neighbour == cell) {
+                    continue;
+                }
+                if(shared) {
+                    SUMMARY.getAndAdd(summaries, neighbour, change);
+                }
+                else {
+                    summaries[neighbour] += change;
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the slot counting an organism's kind in the summaries.
+     * @param organism The organism.
+     * @param code The organism's species code.
+     * @return The slot, or -1 if the organism is not counted.
+     */
+    private int slotOf(Organism organism, byte code)
+    {
+        int gender = organism.getGenderIndex();
+        if(gender < 0) {
+            return -1;
+        }
+        int kind = code * 2 + gender;
+        int slot = slotOfKind[kind];
+        if(slot > 0) {
+            return slot - 1;
+        }
+        return slot < 0 ? -1 : newSlot(kind, organism.getClass());
+    }
+
+    /**
+     * Hand out a slot to a kind, unless another thread just has.
+     * @param kind The kind, species code * 2 + gender index.
+     * @param type The class of organism of that kind.
+     * @return The kind's slot, or -1 if there are none left.
+     */
+    private synchronized int newSlot(int kind, Class<?> type)
+    {
+        int existing = slotOfKind[kind];
+        if(existing != 0) {
+            return existing > 0 ? existing - 1 : -1;
+        }
+        if(slotCount == SUMMARY_SLOTS) {
+            slotOfKind[kind] = -1;
+            summariesIncomplete = true;
+            return -1;
+        }
+        int slot = slotCount++;
+        int level = parameters.traitsOf(type).getTrophicLevel();
+        long[] masks = Arrays.copyOf(levelMasks, Math.max(levelMasks.length, level + 1));
+        masks[level] |= 0xFL << (slot * 4);
+        slotOfKind[kind] = (byte) (slot + 1);
+        levelMasks = masks;
+        return slot;
+    }
+
+    /**
+     * Say whether organisms on several threads are about to change the
+     * field at once. Parallel step engines set this around their
+     * parallel pass, so that the bitplanes and summaries are updated
+     * atomically then and with plain writes the rest of the time.
+     * @param shared True while several threads may change the field.
+     */
+    public void setShared(boolean shared)
+    {
+        this.shared = shared;
+    }
+
+    /**
+     * Count the occupant of a cell again in its neighbours' summaries,
+     * such as once an animal's gender has been set.
+     * @param cell The index of the cell.
+     */
+    public void updateSummary(int cell)
+    {
+        Organism occupant = occupants[cell];
+        setSlot(cell, occupant == null ? -1 : slotOf(occupant, species[cell]));
+    }
+
+    /**
+     * Return whether a cell has a possible mate next to it: an
+     * organism of the given species and the other gender.
+     * @param cell The index of the cell.
+     * @param code The species code of the organism looking for a mate.
+     * @param gender The gender of the organism looking for a mate.
+     * @return True if a neighbour is of the species and the other gender.
+     */
+    public boolean hasMateNear(int cell, byte code, Gender gender)
+    {
+        int mateGender = gender == Gender.MALE ? Gender.FEMALE.ordinal() : Gender.MALE.ordinal();
+        if(summariesIncomplete) {
+            return hasNeighbour(cell, organism -> organism.getSpeciesCode() == code
+                                                  && organism.getGenderIndex() == mateGender);
+        }
+        int slot = slotOfKind[code * 2 + mateGender] - 1;
+        if(slot < 0) {
+            return false;
+        }
+        long summary = (long) SUMMARY.getOpaque(summaries, cell);
+        return ((summary >>> (slot * 4)) & 0xF) != 0;
+    }
+
+    /**
+     * Return whether a cell has an organism at a given trophic level
+     * next to it.
+     * @param cell The index of the cell.
+     * @param trophicLevel The trophic level.
+     * @return True if a neighbour is at that trophic level.
+     */
+    public boolean hasNeighbourAtLevel(int cell, int trophicLevel)
+    {
+        if(summariesIncomplete) {
+            return hasNeighbour(cell, organism -> organism.getTrophicLevel() == trophicLevel);
+        }
+        long[] masks = levelMasks;
+        if(trophicLevel < 0 || trophicLevel >= masks.length) {
+            return false;
+        }
+        return ((long) SUMMARY.getOpaque(summaries, cell) & masks[trophicLevel]) != 0;
+    }
+
+    /**
+     * Look through the neighbours of a cell for one that passes a test,
+     * for when the summaries are incomplete.
+     * @param cell The index of the cell.
+     * @param test The test.
+     * @return True if a neighbour passes the test.
+     */
+    private boolean hasNeighbour(int cell, Predicate<Organism> test)
+    {
+        int row = cell / width;
+        int col = cell - row * width;
+        for(int r = Math.max(row - 1, 0); r <= Math.min(row + 1, depth - 1); r++) {
+            for(int c = Math.max(col - 1, 0); c <= Math.min(col + 1, width - 1); c++) {
+                Organism neighbour = occupants[r * width + c];
+                if(neighbour != null && r * width + c != cell && test.test(neighbour)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Set a run of bits in a bitset.
+     * @param bits The bitset.
+     * @param from The first bit to set.
+     * @param to The bit after the last one to set.
+     */
+    private static void setBits(long[] bits, int from, int to)
+    {
+        if(from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        // Shifts only use the low six bits, so these mask within a word.
+        long head = -1L << from;
+        long tail = -1L >>> -to;
+        if(first == last) {
+            bits[first] |= head & tail;
+            return;
+        }
+        bits[first] |= head;
+        Arrays.fill(bits, first + 1, last, -1L);
+        bits[last] |= tail;
+    }
+
     /**
      * Clear the given location.
      * @param location The location to clear.
      */
     public void clear(Location location)
     {
-        field[location.getRow()][location.getCol()] = null;
+        clear(indexOf(location.getRow(), location.getCol()));
+    }
+
+    /**
+     * Clear the given cell.
+     * @param cell The index of the cell to clear.
+     */
+    public void clear(int cell)
+    {
+        setSpecies(cell, Species.NONE);
+        occupants[cell] = null;
+        setSlot(cell, -1);
     }
     
     /**
@@ -64,7 +483,7 @@ public class Field
      */
     public void place(Object animal, int row, int col)
     {
-        place(animal, new Location(row, col));
+        place((Organism) animal, indexOf(row, col));
     }
     
     /**
@@ -76,7 +495,22 @@ public class Field
      */
     public void place(Object animal, Location location)
     {
-        field[location.getRow()][location.getCol()] = animal;
+        place((Organism) animal, indexOf(location.getRow(), location.getCol()));
+    }
+
+    /**
+     * Place an organism in the given cell.
+     * If there is already an organism in the cell it will
+     * be lost.
+     * @param organism The organism to be placed.
+     * @param cell The index of the cell.
+     */
+    public void place(Organism organism, int cell)
+    {
+        occupants[cell] = organism;
+        byte code = organism == null ? Species.NONE : Species.codeOf(organism.getClass());
+        setSpecies(cell, code);
+        setSlot(cell, organism == null ? -1 : slotOf(organism, code));
     }
     
     /**
@@ -97,13 +531,313 @@ public class Field
      */
     public Organism getObjectAt(int row, int col)
     {
-        if(field[row][col] == null)
-        {
-            return null;
+        return occupants[indexOf(row, col)];
+    }
+
+    /**
+     * Return the organism in the given cell, if any.
+     * @param cell The index of the cell.
+     * @return The organism in the cell, or null if there is none.
+     */
+    public Organism getObjectAt(int cell)
+    {
+        return occupants[cell];
+    }
+
+    /**
+     * Return the species code of whatever is at the given location.
+     * @param row The desired row.
+     * @param col The desired column.
+     * @return The species code, or Species.NONE if the location is empty.
+     */
+    public byte getSpeciesAt(int row, int col)
+    {
+        return species[indexOf(row, col)];
+    }
+
+    /**
+     * Return the species code of whatever is in the given cell.
+     * @param cell The index of the cell.
+     * @return The species code, or Species.NONE if the cell is empty.
+     */
+    public byte getSpeciesAt(int cell)
+    {
+        return species[cell];
+    }
+
+    /**
+     * Copy the species code of every cell, row-major, into an array.
+     * @param into An array of at least getSize() bytes.
+     */
+    public void copySpecies(byte[] into)
+    {
+        System.arraycopy(species, 0, into, 0, species.length);
+    }
+
+    /**
+     * Return whether the given location is empty.
+     * @param row The desired row.
+     * @param col The desired column.
+     * @return true if nothing occupies the location.
+     */
+    public boolean isEmpty(int row, int col)
+    {
+        return species[indexOf(row, col)] == Species.NONE;
+    }
+
+    /**
+     * Return whether the given cell is empty.
+     * @param cell The index of the cell.
+     * @return true if nothing occupies the cell.
+     */
+    public boolean isEmpty(int cell)
+    {
+        return species[cell] == Species.NONE;
+    }
+
+    /**
+     * Find a free cell by counting free cells from a given cell. With a
+     * skip of zero this is the first free cell at or after it. Whole
+     * words of the free plane are skipped at once, so this takes
+     * time proportional to the number of words passed over.
+     * @param from The index of the cell to start counting from.
+     * @param skip The number of free cells to pass over.
+     * @return The index of the free cell reached, or -1 if fewer than
+     *         skip + 1 cells at or after from are free.
+     */
+    public int nextFreeCell(int from, long skip)
+    {
+        long[] plane = planes[Species.NONE];
+        int word = from >>> 6;
+        if(word >= plane.length) {
+            return -1;
+        }
+        // Cells before from in its word are treated as occupied.
+        long free = plane[word] & (-1L << from);
+        while(true) {
+            int count = Long.bitCount(free);
+            if(skip < count) {
+                for(; skip > 0; skip--) {
+                    // Drop the lowest free cell.
+                    free &= free - 1;
+                }
+                return (word << 6) + Long.numberOfTrailingZeros(free);
+            }
+            skip -= count;
+            if(++word == plane.length) {
+                return -1;
+            }
+            free = plane[word];
+        }
+    }
+
+    /**
+     * Find the first cell at or after a given cell holding a species.
+     * Calling this again from the cell after the one returned visits
+     * every cell of the species in order.
+     * @param code A species code, or Species.NONE for the free cells.
+     * @param from The index of the cell to start looking from.
+     * @return The index of the cell found, or -1 if there is none.
+     */
+    public int nextCellOf(int code, int from)
+    {
+        long[] plane = planes[code];
+        int word = from >>> 6;
+        if(plane == null || word >= plane.length) {
+            return -1;
+        }
+        long bits = plane[word] & (-1L << from);
+        while(bits == 0) {
+            if(++word == plane.length) {
+                return -1;
+            }
+            bits = plane[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Count the cells holding a species.
+     * @param code A species code, or Species.NONE for the free cells.
+     * @return The number of cells holding the species.
+     */
+    public int countOf(int code)
+    {
+        long[] plane = planes[code];
+        if(plane == null) {
+            return 0;
+        }
+        int count = 0;
+        for(long bits : plane) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    /**
+     * Count the cells of a region holding a species.
+     * @param code A species code, or Species.NONE for the free cells.
+     * @param region A mask of the cells to count, from regionMask.
+     * @return The number of cells in the region holding the species.
+     */
+    public int countOf(int code, long[] region)
+    {
+        long[] plane = planes[code];
+        if(plane == null) {
+            return 0;
+        }
+        int count = 0;
+        for(int word = 0; word < plane.length; word++) {
+            count += Long.bitCount(plane[word] & region[word]);
+        }
+        return count;
+    }
+
+    /**
+     * Make a mask of the cells in a rectangle of the field, for counting
+     * species within it. The rectangle is clipped to the field.
+     * @param row The top row of the rectangle.
+     * @param col The left column of the rectangle.
+     * @param rows The number of rows in the rectangle.
+     * @param cols The number of columns in the rectangle.
+     * @return A bitset with one bit per cell, set for the cells in the rectangle.
+     */
+    public long[] regionMask(int row, int col, int rows, int cols)
+    {
+        long[] mask = new long[planeWords];
+        int top = Math.max(row, 0);
+        int bottom = Math.min(row + rows, depth);
+        int left = Math.max(col, 0);
+        int right = Math.min(col + cols, width);
+        for(int r = top; r < bottom; r++) {
+            setBits(mask, indexOf(r, left), indexOf(r, right));
+        }
+        return mask;
+    }
+
+    /**
+     * Note that an organism of a species has been created.
+     * @param code The organism's species code.
+     */
+    public void countBirth(byte code)
+    {
+        populations[code].increment();
+        births[code].increment();
+    }
+
+    /**
+     * Note that an organism of a species has died.
+     * @param code The organism's species code.
+     * @param cause What killed it.
+     */
+    public void countDeath(byte code, DeathCause cause)
+    {
+        populations[code].decrement();
+        deaths[code * CAUSES + cause.ordinal()].increment();
+    }
+
+    /**
+     * Note that an organism of a species has caught a disease.
+     * @param code The organism's species code.
+     */
+    public void countInfection(byte code)
+    {
+        infections[code].increment();
+    }
+
+    /**
+     * Set the totals of births, infections and deaths of a species,
+     * such as when restoring a checkpoint after its organisms have
+     * been recreated and counted again.
+     * @param code A species code.
+     * @param birthCount The number of organisms of the species created.
+     * @param infectionCount The number of infections they caught.
+     * @param deathCounts The number that died of each cause, indexed
+     *                    by the cause's ordinal.
+     */
+    public void setTotals(int code, long birthCount, long infectionCount, long[] deathCounts)
+    {
+        births[code].reset();
+        births[code].add(birthCount);
+        infections[code].reset();
+        infections[code].add(infectionCount);
+        for(int cause = 0; cause < CAUSES; cause++) {
+            deaths[code * CAUSES + cause].reset();
+            deaths[code * CAUSES + cause].add(deathCounts[cause]);
+        }
+    }
+
+    /**
+     * @param code A species code.
+     * @return The number of organisms of the species created since the field was cleared.
+     */
+    public long getBirths(int code)
+    {
+        return births[code].sum();
+    }
+
+    /**
+     * @param code A species code.
+     * @param cause A cause of death.
+     * @return The number of organisms of the species that died of the
+     *         cause since the field was cleared.
+     */
+    public long getDeaths(int code, DeathCause cause)
+    {
+        return deaths[code * CAUSES + cause.ordinal()].sum();
+    }
+
+    /**
+     * @param code A species code.
+     * @return The number of infections caught by organisms of the
+     *         species since the field was cleared.
+     */
+    public long getInfections(int code)
+    {
+        return infections[code].sum();
+    }
+
+    /**
+     * @return The timings of the simulation running in this field,
+     *         which step engines report each organism's act to.
+     */
+    public StepMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Return the number of live organisms of each species. The counts
+     * are kept up to date as organisms are born and die, so this takes
+     * time proportional to the number of species, not of cells.
+     * @return An array indexed by species code holding the number of
+     *         live organisms of each species. Index 0 is unused.
+     */
+    public int[] getPopulations()
+    {
+        int[] counts = new int[Species.count()];
+        for(int code = 1; code < counts.length; code++) {
+            counts[code] = populations[code].intValue();
         }
-        else{
-            return (Organism)field[row][col];
+        return counts;
+    }
+
+    /**
+     * Count the occupants of the field by species.
+     * Each species is counted from its bitplane, 64 cells at a time.
+     * Fields with organisms in them can use getPopulations instead;
+     * fields rebuilt by a Replayer hold no organisms and must be
+     * counted this way.
+     * @return An array indexed by species code holding the number of
+     *         occupants of each species. Index 0 holds the empty count.
+     */
+    public int[] countSpecies()
+    {
+        int[] counts = new int[Species.count()];
+        for(int code = 0; code < counts.length; code++) {
+            counts[code] = countOf(code);
         }
+        return counts;
     }
     
     /**
@@ -116,22 +850,27 @@ public class Field
      */
     public Location randomAdjacentLocation(Location location)
     {
-        List<Location> adjacent = adjacentLocations(location);
-        return adjacent.get(0);
+        Neighbourhood around = neighbours(location);
+        if(around.advance()) {
+            return around.getLocation();
+        }
+        return location;
     }
     
     /**
      * Get a shuffled list of the free adjacent locations.
+     * Callers that only need to walk the free locations should use
+     * neighbours instead, which does not allocate.
      * @param location Get locations adjacent to this.
      * @return A list of free adjacent locations.
      */
     public List<Location> getFreeAdjacentLocations(Location location)
     {
-        List<Location> free = new LinkedList<>();
-        List<Location> adjacent = adjacentLocations(location);
-        for(Location next : adjacent) {
-            if(getObjectAt(next) == null) {
-                free.add(next);
+        List<Location> free = new ArrayList<>(Neighbourhood.SIZE);
+        Neighbourhood around = neighbours(location);
+        while(around.advance()) {
+            if(isEmpty(around.getCell())) {
+                free.add(around.getLocation());
             }
         }
         return free;
@@ -147,49 +886,244 @@ public class Field
      */
     public Location freeAdjacentLocation(Location location)
     {
-        // The available free ones.
-        List<Location> free = getFreeAdjacentLocations(location);
-        if(free.size() > 0) {
-            return free.get(0);
-        }
-        else {
-            return null;
+        int cell = freeAdjacentCell(indexOf(location.getRow(), location.getCol()));
+        return cell < 0 ? null : locationOf(cell);
+    }
+
+    /**
+     * Try to find a free cell that is adjacent to the given cell.
+     * @param cell The index of the cell from which to generate an adjacency.
+     * @return The index of a free adjacent cell, or -1 if there is none.
+     */
+    public int freeAdjacentCell(int cell)
+    {
+        return freeAdjacentCell(cell, rand);
+    }
+
+    /**
+     * Try to find a free cell that is adjacent to the given cell,
+     * choosing among them with the caller's random generator.
+     * @param cell The index of the cell from which to generate an adjacency.
+     * @param rand The random generator to draw from.
+     * @return The index of a free adjacent cell, or -1 if there is none.
+     */
+    public int freeAdjacentCell(int cell, RandomGenerator rand)
+    {
+        Neighbourhood around = neighbours(cell, rand);
+        while(around.advance()) {
+            if(isEmpty(around.getCell())) {
+                return around.getCell();
+            }
         }
+        return -1;
     }
 
     /**
      * Return a shuffled list of locations adjacent to the given one.
      * The list will not include the location itself.
      * All locations will lie within the grid.
+     * Callers that only need to walk the locations should use
+     * neighbours instead, which does not allocate.
      * @param location The location from which to generate adjacencies.
      * @return A list of locations adjacent to that given.
      */
     public List<Location> adjacentLocations(Location location)
     {
         assert location != null : "Null location passed to adjacentLocations";
-        // The list of locations to be returned.
-        List<Location> locations = new LinkedList<>();
-            int row = location.getRow();
-            int col = location.getCol();
-            for(int roffset = -1; roffset <= 1; roffset++) {
-                int nextRow = row + roffset;
-                if(nextRow >= 0 && nextRow < depth) {
-                    for(int coffset = -1; coffset <= 1; coffset++) {
-                        int nextCol = col + coffset;
-                        // Exclude invalid locations and the original location.
-                        if(nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
-                            locations.add(new Location(nextRow, nextCol));
-                        }
-                    }
-                }
-            }
-            
-            // Shuffle the list. Several other methods rely on the list
-            // being in a random order.
-            Collections.shuffle(locations, rand);
+        List<Location> locations = new ArrayList<>(Neighbourhood.SIZE);
+        Neighbourhood around = neighbours(location);
+        while(around.advance()) {
+            locations.add(around.getLocation());
+        }
         return locations;
     }
 
+    /**
+     * Return a cursor over the locations adjacent to the given one,
+     * in a random order. Nothing is allocated. The cursor belongs to
+     * the calling thread and is reused by its next call to this method.
+     * @param location The location from which to generate adjacencies.
+     * @return A cursor positioned before the first adjacent location.
+     */
+    public Neighbourhood neighbours(Location location)
+    {
+        assert location != null : "Null location passed to neighbours";
+        return neighbours(indexOf(location.getRow(), location.getCol()));
+    }
+
+    /**
+     * Return a cursor over the cells adjacent to the given one,
+     * in a random order. Nothing is allocated. The cursor belongs to
+     * the calling thread and is reused by its next call to this method.
+     * @param cell The index of the cell from which to generate adjacencies.
+     * @return A cursor positioned before the first adjacent cell.
+     */
+    public Neighbourhood neighbours(int cell)
+    {
+        return neighbours(cell, rand);
+    }
+
+    /**
+     * Return a cursor over the cells adjacent to the given one, in an
+     * order chosen with the caller's random generator. Organisms pass
+     * their own stream so they never draw from the field's.
+     * @param cell The index of the cell from which to generate adjacencies.
+     * @param rand The random generator to draw from.
+     * @return A cursor positioned before the first adjacent cell.
+     */
+    public Neighbourhood neighbours(int cell, RandomGenerator rand)
+    {
+        return Neighbourhood.around(cell, depth, width, rand.nextInt(Neighbourhood.ORDERINGS));
+    }
+
+    /**
+     * Convert a row and column into a cell index.
+     * @param row The row.
+     * @param col The column.
+     * @return The row-major index of that location.
+     */
+    public int indexOf(int row, int col)
+    {
+        return row * width + col;
+    }
+
+    /**
+     * Return the row of a cell.
+     * @param cell The index of the cell.
+     * @return The row the cell lies in.
+     */
+    public int rowOf(int cell)
+    {
+        return cell / width;
+    }
+
+    /**
+     * Return the column of a cell.
+     * @param cell The index of the cell.
+     * @return The column the cell lies in.
+     */
+    public int colOf(int cell)
+    {
+        return cell % width;
+    }
+
+    /**
+     * Return a Location for a cell.
+     * @param cell The index of the cell.
+     * @return A new Location for that cell.
+     */
+    public Location locationOf(int cell)
+    {
+        return new Location(rowOf(cell), colOf(cell));
+    }
+
+    /**
+     * Return the number of cells in the field.
+     * @return depth * width.
+     */
+    public int getSize()
+    {
+        return species.length;
+    }
+
+    /**
+     * Return the root random stream of this field. Separate fields
+     * never share random state.
+     * @return The field's random stream.
+     */
+    public RandomStream getRandom()
+    {
+        return rand;
+    }
+
+    /**
+     * Return a new random stream for an organism created in the given
+     * cell during the current step. The stream depends only on the
+     * root stream, the step, the cell and how many organisms were
+     * created in the cell earlier in the step, so it is the same
+     * whichever thread creates the organism. An organism can only be
+     * created in a cell once the one before it has left or died. With
+     * the SequentialEngine and the CheckerboardEngine the organisms
+     * around a cell act in a fixed order, so the count, and with it
+     * the run, is the same for any number of threads. The
+     * SpeculativeEngine lets neighbouring organisms race, so its runs
+     * depend on how the threads are scheduled.
+     * @param cell The organism's cell.
+     * @return The organism's own stream.
+     */
+    public RandomStream streamFor(int cell)
+    {
+        RandomStream stream = rand.split(((long) step << 32) | cell);
+        if(creationSteps[cell] != step + 1) {
+            creationSteps[cell] = step + 1;
+            creationsInStep[cell] = 1;
+            return stream;
+        }
+        return stream.split(creationsInStep[cell]++);
+    }
+
+    /**
+     * Tell the field which step the simulation is on, so organisms
+     * created during it get streams of their own.
+     * @param step The current step.
+     */
+    public void setStep(int step)
+    {
+        this.step = step;
+    }
+
+    /**
+     * Return the parameters of this field. Organisms read the traits
+     * of their species from it when they are created.
+     * @return The field's parameters.
+     */
+    public Parameters getParameters()
+    {
+        return parameters;
+    }
+
+    /**
+     * Set the recorder told about every birth, move, death and
+     * infection in this field.
+     * @param recorder The recorder, or null to stop recording.
+     */
+    public void setRecorder(EventRecorder recorder)
+    {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @return The field's recorder, or null if nothing is recording.
+     */
+    public EventRecorder getRecorder()
+    {
+        return recorder;
+    }
+
+    /**
+     * Set the species code of a cell without an organism in it. This
+     * is for fields rebuilt from an event log, which show what was
+     * where but hold no organisms.
+     * @param cell The index of the cell.
+     * @param code The species code, or Species.NONE for an empty cell.
+     */
+    public void setSpeciesAt(int cell, byte code)
+    {
+        setSpecies(cell, code);
+        occupants[cell] = null;
+        setSlot(cell, -1);
+    }
+
+    /**
+     * Return the components of the animals in this field. Each animal
+     * keeps its age, food level and gender there under its own id.
+     * @return The field's animal components.
+     */
+    public AnimalComponents getAnimalComponents()
+    {
+        return animalComponents;
+    }
+
     /**
      * Return the depth of the field.
      * @return The depth of the field.
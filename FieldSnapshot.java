@@ -0,0 +1,127 @@
+/**
+ * A copy of everything a SimulatorView shows about one step: the
+ * species in every cell, the time and the weather. The simulation
+ * takes a snapshot at the end of a step and carries on at once while
+ * the view draws it on the Swing event thread.
+ *
+ * A snapshot is not changed once taken. Its cells are one byte per
+ * cell, so taking it is a single array copy. The number of each
+ * species is counted from the field's bitplanes as it is taken.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class FieldSnapshot
+{
+    // The size of the field.
+    private final int depth, width;
+    // The species code of every cell, row-major.
+    private final byte[] cells;
+    // The number of cells of each species, indexed by species code.
+    private final int[] counts;
+    // The time of the step.
+    private final int day, hour, minute;
+    // The weather during the step.
+    private final Weather weather;
+
+    /**
+     * Take a snapshot of a field.
+     * @param field The field.
+     * @param day The day of the step.
+     * @param hour The hour of the step.
+     * @param minute The minute of the step.
+     * @param weather The weather during the step.
+     * @param spare An array to copy the cells into, such as the cells
+     *              of a snapshot that is no longer needed, or null to
+     *              make a new one. It is only used if it is the right size.
+     */
+    public FieldSnapshot(Field field, int day, int hour, int minute, Weather weather, byte[] spare)
+    {
+        depth = field.getDepth();
+        width = field.getWidth();
+        cells = spare != null && spare.length == field.getSize() ? spare : new byte[field.getSize()];
+        field.copySpecies(cells);
+        counts = field.countSpecies();
+        this.day = day;
+        this.hour = hour;
+        this.minute = minute;
+        this.weather = weather;
+    }
+
+    /**
+     * @return The depth of the field.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return The width of the field.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return The species code of the cell's occupant, or Species.NONE.
+     */
+    public byte getSpeciesAt(int row, int col)
+    {
+        return cells[row * width + col];
+    }
+
+    /**
+     * Return the cells, so their array can be reused for a later
+     * snapshot once this one has been drawn or dropped.
+     * @return The species code of every cell, row-major.
+     */
+    byte[] getCells()
+    {
+        return cells;
+    }
+
+    /**
+     * @return The number of cells of each species, indexed by species
+     *         code. Index 0 holds the number of empty cells.
+     */
+    public int[] getCounts()
+    {
+        return counts.clone();
+    }
+
+    /**
+     * @return The day of the step.
+     */
+    public int getDay()
+    {
+        return day;
+    }
+
+    /**
+     * @return The hour of the step.
+     */
+    public int getHour()
+    {
+        return hour;
+    }
+
+    /**
+     * @return The minute of the step.
+     */
+    public int getMinute()
+    {
+        return minute;
+    }
+
+    /**
+     * @return The weather during the step.
+     */
+    public Weather getWeather()
+    {
+        return weather;
+    }
+}
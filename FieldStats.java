@@ -64,6 +64,32 @@ public class FieldStats
      * @param animalClass The class of animal to increment.
      */
     public void incrementCount(Class animalClass)
+    {
+        counterFor(animalClass).increment();
+    }
+
+    /**
+     * Replace the current counts with a tally taken by species code,
+     * such as the one returned by Field.countSpecies.
+     * @param counts The number of occupants of each species, indexed by code.
+     */
+    public void recordCounts(int[] counts)
+    {
+        reset();
+        for(int code = 1; code < counts.length; code++) {
+            if(counts[code] > 0) {
+                counterFor(Species.classOf(code)).add(counts[code]);
+            }
+        }
+        countsValid = true;
+    }
+
+    /**
+     * Return the counter for one class of animal.
+     * @param animalClass The class of animal.
+     * @return Its counter, created if this is the first time it is seen.
+     */
+    private Counter counterFor(Class<?> animalClass)
     {
         Counter count = counters.get(animalClass);
         if(count == null) {
@@ -72,7 +98,7 @@ public class FieldStats
             count = new Counter(animalClass.getName());
             counters.put(animalClass, count);
         }
-        count.increment();
+        return count;
     }
 
     /**
@@ -106,22 +132,12 @@ public class FieldStats
     
     /**
      * Generate counts of the number of foxes and rabbits.
-     * These are not kept up to date as foxes and rabbits
-     * are placed in the field, but only when a request
-     * is made for the information.
+     * The field keeps a running count of each species as organisms
+     * are born and die, so this only copies those counts.
      * @param field The field to generate the stats for.
      */
     private void generateCounts(Field field)
     {
-        reset();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    incrementCount(animal.getClass());
-                }
-            }
-        }
-        countsValid = true;
+        recordCounts(field.getPopulations());
     }
 }
@@ -9,6 +9,9 @@ public class Jackal extends Animal
 {
     // Probability of jackal spawning in location upon simulation creation
     public static final double creationProbability = 0.05;
+    // The traits a jackal has unless the simulation's parameters say otherwise
+    public static final SpeciesTraits DEFAULT_TRAITS =
+        new SpeciesTraits(200, 13, 0.5, 5, 3, 0.05, 0.0001, creationProbability);
     /**
      * Create a new rabbit. A rabbit may be created with age
      * zero (a new born) or with a random age.
@@ -18,7 +21,7 @@ public class Jackal extends Animal
      * @param location The location within the field.
      */
     public Jackal(boolean randomAge, Field field, Location location) {
-        super(randomAge, field, location, 200, 13, 0.5, 5, 3, 0.05, 0.0001);
+        super(randomAge, field, location, field.getParameters().traitsOf(Jackal.class));
     }
         @Override
         protected Animal returnOffspring(Field field, Location location) {
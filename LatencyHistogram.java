@@ -0,0 +1,157 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations in nanoseconds, cheap enough to record
+ * every step.
+ *
+ * Durations are counted in buckets whose width grows with the
+ * duration: each power of two is split into eight buckets, so any
+ * percentile read back is within 12.5% of the true value. Recording is
+ * a few shifts and one atomic increment, allocates nothing and the
+ * histogram never grows, however many durations it holds.
+ *
+ * Durations may be recorded and read on different threads. A reading
+ * taken while durations are being recorded may miss the latest few.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class LatencyHistogram
+{
+    // Each power of two is split into 2^SUB_BITS buckets.
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Enough buckets for any non-negative long.
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    // The number of durations in each bucket.
+    private final AtomicLongArray counts;
+    // The number, total and longest of the durations recorded.
+    private final AtomicLongArray totals;
+    // Indices into totals.
+    private static final int COUNT = 0;
+    private static final int SUM = 1;
+    private static final int MAX = 2;
+
+    /**
+     * Create an empty histogram.
+     */
+    public LatencyHistogram()
+    {
+        counts = new AtomicLongArray(BUCKETS);
+        totals = new AtomicLongArray(3);
+    }
+
+    /**
+     * Record a duration.
+     * @param nanos The duration in nanoseconds. Negative durations count as zero.
+     */
+    public void record(long nanos)
+    {
+        if(nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        totals.incrementAndGet(COUNT);
+        totals.addAndGet(SUM, nanos);
+        long max = totals.get(MAX);
+        while(nanos > max && !totals.compareAndSet(MAX, max, nanos)) {
+            max = totals.get(MAX);
+        }
+    }
+
+    /**
+     * @return The number of durations recorded.
+     */
+    public long getCount()
+    {
+        return totals.get(COUNT);
+    }
+
+    /**
+     * @return The mean duration in nanoseconds, or 0 if none have been recorded.
+     */
+    public double getMean()
+    {
+        long count = totals.get(COUNT);
+        return count == 0 ? 0 : (double) totals.get(SUM) / count;
+    }
+
+    /**
+     * @return The longest duration in nanoseconds.
+     */
+    public long getMax()
+    {
+        return totals.get(MAX);
+    }
+
+    /**
+     * Estimate a percentile of the durations recorded.
+     * @param percentile The percentile, from 0 to 100.
+     * @return The upper end of the bucket holding the percentile, in
+     *         nanoseconds, or 0 if none have been recorded.
+     */
+    public long getPercentile(double percentile)
+    {
+        long count = 0;
+        long[] snapshot = new long[BUCKETS];
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+            count += snapshot[bucket];
+        }
+        if(count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += snapshot[bucket];
+            if(seen >= rank) {
+                return Math.min(upperBoundOf(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Forget every duration recorded.
+     */
+    public void reset()
+    {
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        for(int i = 0; i < totals.length(); i++) {
+            totals.set(i, 0);
+        }
+    }
+
+    /**
+     * Find the bucket holding a duration. Durations below SUB_BUCKETS
+     * have a bucket each; above that, the bucket is given by the
+     * position of the highest set bit and the SUB_BITS bits below it.
+     */
+    private static int bucketOf(long nanos)
+    {
+        if(nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return The longest duration that falls in a bucket.
+     */
+    private static long upperBoundOf(int bucket)
+    {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -7,8 +7,8 @@
 public class Location
 {
     // Row and column positions.
-    private int row;
-    private int col;
+    private final int row;
+    private final int col;
 
     /**
      * Represent a row and column.
@@ -45,14 +45,15 @@ public class Location
     }
     
     /**
-     * Use the top 16 bits for the row value and the bottom for
-     * the column. Except for very big grids, this should give a
-     * unique hash code for each (row, col) pair.
+     * Mix the row and column so that the hash code stays well spread
+     * however wide the grid is. Shifting the row into the top 16 bits
+     * made locations collide once a grid had more than 65536 columns.
      * @return A hashcode for the location.
      */
     public int hashCode()
     {
-        return (row << 16) + col;
+        int hash = row * 0x9E3779B9 + col;
+        return hash ^ (hash >>> 16);
     }
     
     /**
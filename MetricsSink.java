@@ -0,0 +1,335 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Records a time series of every species' population, births, deaths
+ * by cause and infections, and the weather, one row per step. Rows are
+ * written both to a CSV file and to a columnar binary file that numpy
+ * and pandas can read without parsing text.
+ *
+ * Rows are collected in fixed-size row groups, stored column by column.
+ * A full group is handed to a background thread that writes it to both
+ * files, while the simulation fills the next group. Only a few groups
+ * exist and they are reused, so memory stays fixed however long the
+ * run; if the writer falls behind, the simulation waits for it.
+ *
+ * The binary file starts with the int 0x5050414D ("PPAM"), the version,
+ * the number of columns and each column's name as a length and UTF-8
+ * bytes. Each row group follows as its number of rows and then every
+ * column in turn as that many 32-bit ints. All numbers are
+ * little-endian.
+ *
+ * The columns are chosen from the species known when the first row is
+ * recorded.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class MetricsSink implements SimulationObserver, Closeable
+{
+    // Marks the start of a metrics file: "PPAM".
+    private static final int MAGIC = 0x5050414D;
+    // The version of the file layout.
+    private static final int VERSION = 1;
+    // The number of rows in each row group.
+    private static final int GROUP_ROWS = 4096;
+    // The number of row groups that can exist at once.
+    private static final int GROUPS = 3;
+    // The causes of death, one column each per species.
+    private static final DeathCause[] CAUSES = DeathCause.values();
+    // Passed to the writer in place of a group to tell it to stop.
+    private static final int[][] END = new int[0][];
+
+    // The binary and CSV files.
+    private final FileChannel binary;
+    private final FileChannel csv;
+    // Empty row groups waiting to be filled, and full ones waiting to be written.
+    private final BlockingQueue<int[][]> empty;
+    private final BlockingQueue<int[][]> full;
+    // The rows in each full group, in the same order as full.
+    private final BlockingQueue<Integer> fullRows;
+    // The thread writing full groups.
+    private final Thread writer;
+    // The first error the writer met, reported on the next call.
+    private volatile IOException failure;
+
+    // The species codes with columns, fixed by the first row.
+    private int[] codes;
+    // The names of the columns.
+    private List<String> columns;
+    // The group being filled and the number of rows in it.
+    private int[][] group;
+    private int rows;
+    // The totals seen at the previous row, to turn them into per-step counts.
+    private long[] previous;
+    // The step of the previous row.
+    private int lastStep;
+
+    /**
+     * Start recording metrics.
+     * @param base The path to write to, without an extension. The
+     *             files base.bin and base.csv are created, replacing
+     *             any already there.
+     * @throws IOException If the files cannot be created.
+     */
+    public MetricsSink(Path base) throws IOException
+    {
+        binary = open(base.resolveSibling(base.getFileName() + ".bin"));
+        csv = open(base.resolveSibling(base.getFileName() + ".csv"));
+        empty = new ArrayBlockingQueue<>(GROUPS);
+        full = new ArrayBlockingQueue<>(GROUPS);
+        fullRows = new ArrayBlockingQueue<>(GROUPS);
+        lastStep = -1;
+        writer = new Thread(this::writeGroups, "metrics-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Record a row for the step the simulation has just taken.
+     * @param simulator The simulation that has changed.
+     */
+    public void update(Simulator simulator)
+    {
+        checkFailure();
+        Field field = simulator.getField();
+        if(codes == null) {
+            start();
+        }
+        if(simulator.getStep() <= lastStep) {
+            // The simulation was reset or restored, so the totals started again.
+            previous = totals(field);
+        }
+        lastStep = simulator.getStep();
+
+        long[] now = totals(field);
+        int[] populations = field.getPopulations();
+        int column = 0;
+        group[column++][rows] = simulator.getStep();
+        group[column++][rows] = simulator.getWeather().ordinal();
+        int total = 0;
+        for(int code : codes) {
+            group[column++][rows] = code < populations.length ? populations[code] : 0;
+            for(int i = 0; i < CAUSES.length + 2; i++) {
+                group[column++][rows] = (int) (now[total] - previous[total]);
+                total++;
+            }
+        }
+        previous = now;
+        rows++;
+        if(rows == GROUP_ROWS) {
+            handOver();
+        }
+    }
+
+    /**
+     * Write any rows still held and close the files, waiting for the
+     * writer to finish.
+     * @throws IOException If the files cannot be written.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if(group != null && rows > 0) {
+            handOver();
+        }
+        try {
+            // Interrupting the writer would close its channels, so ask it to stop instead.
+            fullRows.put(0);
+            full.put(END);
+            writer.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        binary.close();
+        csv.close();
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Fix the columns from the species known now, write the file
+     * headers and make the row groups.
+     */
+    private void start()
+    {
+        List<Integer> known = new ArrayList<>();
+        columns = new ArrayList<>();
+        columns.add("step");
+        columns.add("weather");
+        for(int code = 1; code < Species.count(); code++) {
+            known.add(code);
+            String name = Species.classOf(code).getName();
+            columns.add(name + ".population");
+            for(DeathCause cause : CAUSES) {
+                columns.add(name + ".deaths." + cause.name().toLowerCase());
+            }
+            columns.add(name + ".births");
+            columns.add(name + ".infections");
+        }
+        codes = known.stream().mapToInt(Integer::intValue).toArray();
+        previous = new long[codes.length * (CAUSES.length + 2)];
+
+        for(int i = 0; i < GROUPS; i++) {
+            empty.add(new int[columns.size()][GROUP_ROWS]);
+        }
+        group = empty.remove();
+        rows = 0;
+        writeHeaders();
+    }
+
+    /**
+     * Read the running totals for every species, in column order:
+     * deaths by cause, births, then infections.
+     */
+    private long[] totals(Field field)
+    {
+        long[] totals = new long[previous.length];
+        int i = 0;
+        for(int code : codes) {
+            for(DeathCause cause : CAUSES) {
+                totals[i++] = field.getDeaths(code, cause);
+            }
+            totals[i++] = field.getBirths(code);
+            totals[i++] = field.getInfections(code);
+        }
+        return totals;
+    }
+
+    /**
+     * Pass the current group to the writer and take an empty one,
+     * waiting if the writer has fallen behind.
+     */
+    private void handOver()
+    {
+        try {
+            fullRows.put(rows);
+            full.put(group);
+            group = empty.take();
+            rows = 0;
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the metrics writer", e);
+        }
+    }
+
+    /**
+     * Write the binary file's header and the CSV file's heading row.
+     */
+    private void writeHeaders()
+    {
+        try {
+            ByteBuffer header = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(columns.size());
+            for(String column : columns) {
+                byte[] name = column.getBytes(StandardCharsets.UTF_8);
+                header.putInt(name.length).put(name);
+            }
+            header.flip();
+            writeFully(binary, header);
+            writeFully(csv, ByteBuffer.wrap((String.join(",", columns) + "\n").getBytes(StandardCharsets.UTF_8)));
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException("Cannot write the metrics files", e);
+        }
+    }
+
+    /**
+     * Write full groups to both files until told to stop.
+     */
+    private void writeGroups()
+    {
+        ByteBuffer out = null;
+        StringBuilder text = new StringBuilder();
+        while(true) {
+            int[][] next;
+            int count;
+            try {
+                count = fullRows.take();
+                next = full.take();
+            }
+            catch(InterruptedException e) {
+                return;
+            }
+            if(next == END) {
+                return;
+            }
+            try {
+                if(out == null) {
+                    out = ByteBuffer.allocateDirect(4 + next.length * GROUP_ROWS * 4)
+                                    .order(ByteOrder.LITTLE_ENDIAN);
+                }
+                out.clear();
+                out.putInt(count);
+                for(int[] column : next) {
+                    for(int row = 0; row < count; row++) {
+                        out.putInt(column[row]);
+                    }
+                }
+                out.flip();
+                writeFully(binary, out);
+
+                text.setLength(0);
+                for(int row = 0; row < count; row++) {
+                    for(int column = 0; column < next.length; column++) {
+                        if(column > 0) {
+                            text.append(',');
+                        }
+                        text.append(next[column][row]);
+                    }
+                    text.append('\n');
+                }
+                writeFully(csv, ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII)));
+            }
+            catch(IOException e) {
+                if(failure == null) {
+                    failure = e;
+                }
+            }
+            empty.add(next);
+        }
+    }
+
+    /**
+     * Report an error the writer met.
+     */
+    private void checkFailure()
+    {
+        if(failure != null) {
+            throw new UncheckedIOException("Cannot write the metrics files", failure);
+        }
+    }
+
+    /**
+     * Open a file for writing, replacing any already there.
+     */
+    private static FileChannel open(Path file) throws IOException
+    {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Write all of a buffer to a channel.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
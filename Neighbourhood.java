@@ -0,0 +1,187 @@
+/**
+ * A reusable cursor over the cells surrounding one cell in a field,
+ * visited in a random order. It replaces building a shuffled list of
+ * Location objects for every neighbourhood query.
+ *
+ * The random order comes from a table holding every ordering of the
+ * eight surrounding offsets, so a single random number picks a
+ * uniformly shuffled order. Offsets that fall outside the field are
+ * skipped while the cursor is filled.
+ *
+ * Each thread has its own cursor, obtained through Field.neighbours.
+ * A cursor is only valid until the next neighbourhood query on the
+ * same thread, so callers must finish one walk before starting another.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class Neighbourhood
+{
+    // The number of cells surrounding a cell.
+    public static final int SIZE = 8;
+    // The row and column offsets of each surrounding cell.
+    private static final int[] ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COL_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    // The number of orderings of the eight offsets (8!).
+    public static final int ORDERINGS = 40320;
+    // Every ordering of the offsets, SIZE entries per ordering.
+    private static final byte[] orderings = buildOrderings();
+    // One cursor per thread.
+    private static final ThreadLocal<Neighbourhood> cursors =
+        ThreadLocal.withInitial(Neighbourhood::new);
+
+    // The indices of the valid surrounding cells, in visiting order.
+    private final int[] cells;
+    // How many surrounding cells are valid.
+    private int size;
+    // The width of the field the cursor was last filled for.
+    private int width;
+    // The position of the current cell, -1 before the first advance.
+    private int position;
+
+    /**
+     * Create an empty cursor.
+     */
+    private Neighbourhood()
+    {
+        cells = new int[SIZE];
+    }
+
+    /**
+     * Return this thread's cursor, filled with the cells surrounding
+     * the given one in the chosen order.
+     * @param cell The index of the centre cell.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param ordering Which ordering to use, from 0 to ORDERINGS - 1.
+     * @return The thread's cursor, positioned before the first cell.
+     */
+    static Neighbourhood around(int cell, int depth, int width, int ordering)
+    {
+        Neighbourhood cursor = cursors.get();
+        cursor.fill(cell, depth, width, ordering);
+        return cursor;
+    }
+
+    /**
+     * Fill the cursor with the valid surrounding cells.
+     */
+    private void fill(int cell, int depth, int width, int ordering)
+    {
+        this.width = width;
+        size = 0;
+        position = -1;
+        int row = cell / width;
+        int col = cell - row * width;
+        int base = ordering * SIZE;
+        for(int i = 0; i < SIZE; i++) {
+            int offset = orderings[base + i];
+            int nextRow = row + ROW_OFFSETS[offset];
+            int nextCol = col + COL_OFFSETS[offset];
+            if(nextRow >= 0 && nextRow < depth && nextCol >= 0 && nextCol < width) {
+                cells[size] = nextRow * width + nextCol;
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Move on to the next surrounding cell.
+     * @return true if there was another cell to move to.
+     */
+    public boolean advance()
+    {
+        if(position + 1 < size) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The index of the current cell.
+     */
+    public int getCell()
+    {
+        return cells[position];
+    }
+
+    /**
+     * @return The row of the current cell.
+     */
+    public int getRow()
+    {
+        return cells[position] / width;
+    }
+
+    /**
+     * @return The column of the current cell.
+     */
+    public int getCol()
+    {
+        return cells[position] % width;
+    }
+
+    /**
+     * Return the current cell as a Location object.
+     * Prefer getCell, which does not allocate.
+     * @return A new Location for the current cell.
+     */
+    public Location getLocation()
+    {
+        return new Location(getRow(), getCol());
+    }
+
+    /**
+     * @return The number of valid surrounding cells.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Build the table of all orderings of the offset indices.
+     * @return ORDERINGS orderings laid end to end.
+     */
+    private static byte[] buildOrderings()
+    {
+        byte[] table = new byte[ORDERINGS * SIZE];
+        byte[] current = {0, 1, 2, 3, 4, 5, 6, 7};
+        int filled = 0;
+        do {
+            System.arraycopy(current, 0, table, filled * SIZE, SIZE);
+            filled++;
+        } while(nextPermutation(current));
+        return table;
+    }
+
+    /**
+     * Rearrange the array into the next permutation in lexicographic order.
+     * @param values The permutation to advance.
+     * @return false if the values were already the last permutation.
+     */
+    private static boolean nextPermutation(byte[] values)
+    {
+        int pivot = values.length - 2;
+        while(pivot >= 0 && values[pivot] >= values[pivot + 1]) {
+            pivot--;
+        }
+        if(pivot < 0) {
+            return false;
+        }
+        int swap = values.length - 1;
+        while(values[swap] <= values[pivot]) {
+            swap--;
+        }
+        byte temp = values[pivot];
+        values[pivot] = values[swap];
+        values[swap] = temp;
+        for(int left = pivot + 1, right = values.length - 1; left < right; left++, right--) {
+            temp = values[left];
+            values[left] = values[right];
+            values[right] = temp;
+        }
+        return true;
+    }
+}
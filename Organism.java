@@ -12,8 +12,10 @@ public abstract class Organism
     private boolean alive;
     // The animal's field.
     private Field field;
-    // The animal's position in the field.
-    private Location location;
+    // The index of the animal's cell in the field, or -1 if it has none.
+    private int cell;
+    // The organism's species code.
+    private final byte species;
     // The level of the organism in the food chain
     private final int trophicLevel;
     // The chance of an organism dying from snow at any step
@@ -24,9 +26,10 @@ public abstract class Organism
     protected final int maxOffspring;
     // The probability of a disease first appearing in this organism
     private double diseaseMutationProbability;
-    protected Random rand = Randomizer.getRandom();
-    // The diseases an organism has
-    private Set<Disease> diseases = new HashSet<>();
+    // The organism's own random stream, split from its field's.
+    protected final RandomStream rand;
+    // The diseases an organism has, one bit for each disease in its field's parameters
+    private long diseases;
 
     /**
      * Create a new animal at location in field.
@@ -42,7 +45,11 @@ public abstract class Organism
     {
         alive = true;
         this.field = field;
+        cell = -1;
         setLocation(location);
+        rand = field.streamFor(cell);
+        species = Species.codeOf(getClass());
+        field.countBirth(species);
         this.trophicLevel = trophicLevel;
         this.chanceOfDeathInSnow = chanceOfDeathInSnow;
         this.breedingProbability = breedingProbability * 1.25;
@@ -52,14 +59,20 @@ public abstract class Organism
 
     protected void spreadDiseases()
     {
-        for (Location adjacentLocation: field.adjacentLocations(location)) {
-            if(field.getObjectAt(adjacentLocation) != null && field.getObjectAt(adjacentLocation).getClass() == getClass())    //disease only spreads between organisms of same species
+        if(diseases == 0) {
+            return;
+        }
+        Parameters parameters = field.getParameters();
+        Neighbourhood around = field.neighbours(cell, rand);
+        while(around.advance()) {
+            Organism neighbour = field.getObjectAt(around.getCell());
+            if(neighbour != null && neighbour.getClass() == getClass())    //disease only spreads between organisms of same species
             {
-                for (Disease disease: diseases) {
-                    if(disease.wouldSpread())
+                for (long left = diseases; left != 0; left &= left - 1) {
+                    int index = Long.numberOfTrailingZeros(left);
+                    if(parameters.getDisease(index).wouldSpread(rand))
                     {
-                        //System.out.println(((Organism)field.getObjectAt(adjacentLocation)).getClass().getName() + " caught " + disease.getName());
-                        field.getObjectAt(adjacentLocation).giveDisease(disease);
+                        neighbour.giveDisease(index);
                     }
                 }
             }
@@ -71,9 +84,38 @@ public abstract class Organism
      * @param disease The disease to be contracted
      */
     public void giveDisease(Disease disease)
+    {
+        if(field != null) {
+            giveDisease(field.getParameters().indexOfDisease(disease));
+        }
+    }
+
+    /**
+     * Gives a disease to the organism by its position in the field's parameters
+     * @param index The position of the disease to be contracted
+     */
+    protected void giveDisease(int index)
     {
         //System.out.println(disease.getName() + " contracted by " + getClass().getName());
-        diseases.add(disease);
+        long bit = 1L << index;
+        if((diseases & bit) == 0 && cell >= 0) {
+            diseases |= bit;
+            field.countInfection(species);
+            EventRecorder recorder = field.getRecorder();
+            if(recorder != null) {
+                recorder.infection(cell, field.getParameters().getDisease(index));
+            }
+        }
+    }
+
+    /**
+     * Return the diseases the organism has.
+     * @return One bit for each disease it has, by the disease's
+     *         position in the field's parameters.
+     */
+    protected long getDiseaseBits()
+    {
+        return diseases;
     }
 
     /**
@@ -81,10 +123,16 @@ public abstract class Organism
      */
     protected void mutateNewDisease()
     {
+        if(!alive) {
+            // Its diseases may have just killed it.
+            return;
+        }
         if(rand.nextDouble() <= diseaseMutationProbability)
         {
-            Disease contractedDisease = Disease.getRandomDisease();
-            giveDisease(contractedDisease);
+            Disease contractedDisease = field.getParameters().getRandomDisease(rand);
+            if(contractedDisease != null) {
+                giveDisease(contractedDisease);
+            }
             //System.out.println(this.getClass().getName() + " has contracted " + contractedDisease.getName());
         }
     }
@@ -94,8 +142,12 @@ public abstract class Organism
      */
     protected void affectByDiseases()
     {
-        for (Disease disease: diseases) {
-            disease.affect(this);
+        if(diseases == 0) {
+            return;
+        }
+        Parameters parameters = field.getParameters();
+        for (long left = diseases; left != 0; left &= left - 1) {
+            parameters.getDisease(Long.numberOfTrailingZeros(left)).affect(this);
         }
     }
 
@@ -137,24 +189,50 @@ public abstract class Organism
     /**
      * Indicate that the animal is no longer alive.
      * It is removed from the field.
+     * @param cause What killed it.
      */
-    protected void setDead()
+    protected void setDead(DeathCause cause)
     {
+        if(alive && field != null) {
+            field.countDeath(species, cause);
+        }
         alive = false;
-        if(location != null) {
-            field.clear(location);
-            location = null;
+        if(cell >= 0) {
+            EventRecorder recorder = field.getRecorder();
+            if(recorder != null) {
+                recorder.death(cell, cause);
+            }
+            field.clear(cell);
+            cell = -1;
             field = null;
         }
     }
 
+    /**
+     * Called once the simulator has dropped this dead organism, so it
+     * can let go of anything it holds outside the field.
+     */
+    protected void discard()
+    {
+    }
+
     /**
      * Return the animal's location.
-     * @return The animal's location.
+     * Prefer getCell, which does not allocate.
+     * @return The animal's location, or null if it is not in a field.
      */
     protected Location getLocation()
     {
-        return location;
+        return cell < 0 ? null : field.locationOf(cell);
+    }
+
+    /**
+     * Return the index of the animal's cell in the field.
+     * @return The animal's cell, or -1 if it is not in a field.
+     */
+    protected int getCell()
+    {
+        return cell;
     }
 
     /**
@@ -163,11 +241,30 @@ public abstract class Organism
      */
     protected void setLocation(Location newLocation)
     {
-        if(location != null) {
-            field.clear(location);
+        setLocation(field.indexOf(newLocation.getRow(), newLocation.getCol()));
+    }
+
+    /**
+     * Place the animal in the given cell of its field.
+     * @param newCell The index of the animal's new cell.
+     */
+    protected void setLocation(int newCell)
+    {
+        EventRecorder recorder = field.getRecorder();
+        if(recorder != null) {
+            // An organism's first placement is its birth.
+            if(cell < 0) {
+                recorder.birth(Species.codeOf(getClass()), newCell);
+            }
+            else {
+                recorder.move(cell, newCell);
+            }
+        }
+        if(cell >= 0) {
+            field.clear(cell);
         }
-        location = newLocation;
-        field.place(this, newLocation);
+        cell = newCell;
+        field.place(this, newCell);
     }
 
     /**
@@ -178,18 +275,21 @@ public abstract class Organism
      */
     protected void giveBirth(List<Organism> newOrganism)
     {
-        // New foxes are born into adjacent locations.
-        // Get a list of adjacent free locations.
-        Field field = getField();
-        List<Location> free;
-
-        free = field.getFreeAdjacentLocations(getLocation());
-
+        // Decide how many are born before looking for space, so the
+        // neighbourhood is only walked when there is a birth.
         int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++) {
-            Location loc = free.remove(0);
-            Organism young = returnOffspring(field, loc);
-            newOrganism.add(young);
+        if(births == 0) {
+            return;
+        }
+        // New foxes are born into free adjacent locations.
+        Field field = getField();
+        Neighbourhood around = field.neighbours(cell, rand);
+        while(births > 0 && around.advance()) {
+            if(field.isEmpty(around.getCell())) {
+                Organism young = returnOffspring(field, around.getLocation());
+                newOrganism.add(young);
+                births--;
+            }
         }
     }
 
@@ -207,6 +307,35 @@ public abstract class Organism
      */
     protected abstract Organism returnOffspring(Field field, Location location);
 
+    /**
+     * Return the random stream this organism draws from.
+     * It stays available after the organism has died.
+     * @return The organism's random stream.
+     */
+    protected RandomStream getRandom()
+    {
+        return rand;
+    }
+
+    /**
+     * @return The organism's species code.
+     */
+    protected byte getSpeciesCode()
+    {
+        return species;
+    }
+
+    /**
+     * Return the organism's gender as its index in Gender.values(), so
+     * the field can count mates around each cell. Organisms without a
+     * gender all count as the first one.
+     * @return The gender index, or -1 if it is not known yet.
+     */
+    protected int getGenderIndex()
+    {
+        return 0;
+    }
+
     /**
      * Return the animal's field.
      * @return The animal's field.
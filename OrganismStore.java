@@ -0,0 +1,135 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * An array-backed list of the organisms in a simulation that removes
+ * dead organisms in one linear pass.
+ *
+ * Removing organisms one at a time from an ArrayList shifts the rest
+ * of the list every time, which makes a step quadratic when thousands
+ * die at once in a snowstorm or an epidemic. Instead, dead organisms
+ * are left in place while the step runs and removeDead then slides
+ * the survivors down over them, keeping their order.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class OrganismStore extends AbstractList<Organism> implements RandomAccess
+{
+    // The smallest capacity the store is created with.
+    private static final int INITIAL_CAPACITY = 16;
+
+    // The organisms; only the first size entries are in use.
+    private Organism[] organisms;
+    // The number of organisms held.
+    private int size;
+
+    /**
+     * Create an empty store.
+     */
+    public OrganismStore()
+    {
+        organisms = new Organism[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Return the organism at a position.
+     * @param index The position, from 0 to size() - 1.
+     * @return The organism there.
+     */
+    @Override
+    public Organism get(int index)
+    {
+        if(index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+        }
+        return organisms[index];
+    }
+
+    /**
+     * @return The number of organisms held, alive or dead.
+     */
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Add an organism to the end of the store.
+     * @param organism The organism to add.
+     * @return true, as the store always changes.
+     */
+    @Override
+    public boolean add(Organism organism)
+    {
+        ensureCapacity(size + 1);
+        organisms[size++] = organism;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Add a group of organisms, such as a step's newborns, to the end of the store.
+     * @param newcomers The organisms to add.
+     * @return true if any were added.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Organism> newcomers)
+    {
+        ensureCapacity(size + newcomers.size());
+        for(Organism organism : newcomers) {
+            organisms[size++] = organism;
+        }
+        modCount++;
+        return !newcomers.isEmpty();
+    }
+
+    /**
+     * Remove every organism.
+     */
+    @Override
+    public void clear()
+    {
+        Arrays.fill(organisms, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Remove every dead organism in a single pass, keeping the order
+     * of those still alive.
+     * @return The number of organisms removed.
+     */
+    public int removeDead()
+    {
+        int kept = 0;
+        for(int i = 0; i < size; i++) {
+            Organism organism = organisms[i];
+            if(organism.isAlive()) {
+                organisms[kept++] = organism;
+            }
+            else {
+                organism.discard();
+            }
+        }
+        int removed = size - kept;
+        // Let the dead be garbage collected.
+        Arrays.fill(organisms, kept, size, null);
+        size = kept;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Make sure the store can hold the given number of organisms.
+     */
+    private void ensureCapacity(int capacity)
+    {
+        if(capacity > organisms.length) {
+            organisms = Arrays.copyOf(organisms, Math.max(capacity, organisms.length * 2));
+        }
+    }
+}
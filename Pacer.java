@@ -0,0 +1,160 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps a running simulation to a target number of steps a second and
+ * decides which steps are shown, so that how fast the simulation runs
+ * and how often the view is redrawn can be set separately.
+ *
+ * Steps are paced against deadlines on the wall clock rather than by
+ * sleeping a fixed time after each step, so time spent stepping counts
+ * towards the pause. A simulation that has fallen behind does not
+ * sleep at all, and one that has fallen far behind gives up on the
+ * lost time instead of racing to make it up.
+ *
+ * A step is shown when a frame is due, at most framesPerSecond times a
+ * second. While the simulation is behind its step deadlines, frames
+ * are dropped to help it catch up, though never for longer than
+ * MAX_FRAME_GAP, so the view keeps moving.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class Pacer
+{
+    // The longest the view may go without a frame, in nanoseconds.
+    private static final long MAX_FRAME_GAP = 500_000_000L;
+    // How far behind the step deadlines may fall before the lost time is forgotten.
+    private static final long MAX_LAG = 250_000_000L;
+
+    // The rates asked for, in steps and frames a second; 0 for no limit.
+    private final double stepsPerSecond;
+    private final double framesPerSecond;
+    // The time between steps and between frames, in nanoseconds; 0 for no limit.
+    private final long stepInterval;
+    private final long frameInterval;
+    // When the next step and the next frame are due.
+    private long nextStep;
+    private long nextFrame;
+    // When the last frame was shown.
+    private long lastFrame;
+    // The number of frames shown and dropped since the pacer started.
+    private long framesShown;
+    private long framesDropped;
+
+    /**
+     * Create a pacer.
+     * @param stepsPerSecond The number of steps to run a second, or 0
+     *                       to run as fast as possible.
+     * @param framesPerSecond The most steps to show a second, or 0 to
+     *                        show every step.
+     */
+    public Pacer(double stepsPerSecond, double framesPerSecond)
+    {
+        if(stepsPerSecond < 0 || framesPerSecond < 0) {
+            throw new IllegalArgumentException("Rates cannot be negative: " + stepsPerSecond
+                                               + " steps and " + framesPerSecond + " frames a second");
+        }
+        this.stepsPerSecond = stepsPerSecond;
+        this.framesPerSecond = framesPerSecond;
+        stepInterval = stepsPerSecond == 0 ? 0 : (long) (1e9 / stepsPerSecond);
+        frameInterval = framesPerSecond == 0 ? 0 : (long) (1e9 / framesPerSecond);
+        start();
+    }
+
+    /**
+     * Start pacing from now, forgetting any earlier deadlines.
+     */
+    public void start()
+    {
+        long now = System.nanoTime();
+        nextStep = now + stepInterval;
+        nextFrame = now;
+        lastFrame = now;
+        framesShown = 0;
+        framesDropped = 0;
+    }
+
+    /**
+     * Decide whether the step just taken should be shown.
+     * @return True if a frame is due and the simulation is keeping up,
+     *         or if no frame has been shown for too long.
+     */
+    public boolean frameDue()
+    {
+        long now = System.nanoTime();
+        if(now - nextFrame < 0) {
+            return false;
+        }
+        boolean behind = stepInterval > 0 && now - nextStep > 0;
+        if(behind && now - lastFrame < MAX_FRAME_GAP) {
+            framesDropped++;
+            return false;
+        }
+        lastFrame = now;
+        // Frames missed while the view was busy are not made up.
+        nextFrame = Math.max(nextFrame + frameInterval, now);
+        framesShown++;
+        return true;
+    }
+
+    /**
+     * Wait until the next step is due. Returns at once if it is
+     * already due, or if the pacer has no step limit.
+     */
+    public void awaitNextStep()
+    {
+        if(stepInterval == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long wait = nextStep - now;
+        if(wait > 0) {
+            // Parking may end early, so wait again until the deadline has passed.
+            while(wait > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(wait);
+                wait = nextStep - System.nanoTime();
+            }
+            nextStep += stepInterval;
+        }
+        else if(-wait > MAX_LAG) {
+            // Too far behind to catch up; carry on from now.
+            nextStep = now + stepInterval;
+        }
+        else {
+            nextStep += stepInterval;
+        }
+    }
+
+    /**
+     * @return The number of steps run a second, or 0 for no limit.
+     */
+    public double getStepsPerSecond()
+    {
+        return stepsPerSecond;
+    }
+
+    /**
+     * @return The most steps shown a second, or 0 for no limit.
+     */
+    public double getFramesPerSecond()
+    {
+        return framesPerSecond;
+    }
+
+    /**
+     * @return The number of frames shown since the pacer started.
+     */
+    public long getFramesShown()
+    {
+        return framesShown;
+    }
+
+    /**
+     * @return The number of frames dropped to let the simulation
+     *         catch up since the pacer started.
+     */
+    public long getFramesDropped()
+    {
+        return framesDropped;
+    }
+}
@@ -0,0 +1,265 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run a simulation over many combinations of parameter values, in
+ * parallel, to calibrate species traits and disease rates without
+ * editing and recompiling the species classes.
+ *
+ * Each swept value is named as in Parameters, such as "Tiger.maxAge"
+ * or "Ebola.mortalityRate", and given a range. Combinations are laid
+ * out either as a full grid or as a Latin hypercube sample. Every run
+ * is stopped as soon as fewer than two species are left, or as soon
+ * as a chosen species dies out, so hopeless combinations finish early.
+ *
+ * Every run uses the same seed, so differences between runs come from
+ * the parameters rather than from chance.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class ParameterSweep
+{
+    // The size of the field in every run.
+    private final int depth, width;
+    // The most steps a run may take.
+    private final int maxSteps;
+    // The parameters that are not swept.
+    private final Parameters base;
+    // The names of the swept values and the lowest and highest value of each.
+    private final List<String> names;
+    private final List<double[]> ranges;
+    // A species whose extinction ends a run, or null.
+    private Class<?> watched;
+    // The seed every run uses.
+    private long seed;
+    // The number of runs allowed to proceed at once.
+    private int threads;
+
+    /**
+     * Create a sweep starting from the default parameters.
+     * @param depth Depth of each run's field.
+     * @param width Width of each run's field.
+     * @param maxSteps The most steps a run may take.
+     */
+    public ParameterSweep(int depth, int width, int maxSteps)
+    {
+        this(depth, width, maxSteps, Parameters.defaults());
+    }
+
+    /**
+     * Create a sweep.
+     * @param depth Depth of each run's field.
+     * @param width Width of each run's field.
+     * @param maxSteps The most steps a run may take.
+     * @param base The parameters that are not swept.
+     */
+    public ParameterSweep(int depth, int width, int maxSteps, Parameters base)
+    {
+        this.depth = depth;
+        this.width = width;
+        this.maxSteps = maxSteps;
+        this.base = base;
+        names = new ArrayList<>();
+        ranges = new ArrayList<>();
+        seed = 1111;
+        threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sweep one value across a range.
+     * @param name The value's name, such as "Tiger.maxAge".
+     * @param min The lowest value to try.
+     * @param max The highest value to try.
+     * @return This sweep, so calls can be chained.
+     */
+    public ParameterSweep vary(String name, double min, double max)
+    {
+        // Fail now, not halfway through the sweep, if the name is wrong.
+        base.get(name);
+        names.add(name);
+        ranges.add(new double[] {min, max});
+        return this;
+    }
+
+    /**
+     * End each run as soon as the given species dies out.
+     * @param species The species to watch.
+     * @return This sweep, so calls can be chained.
+     */
+    public ParameterSweep stopWhenExtinct(Class<?> species)
+    {
+        watched = species;
+        return this;
+    }
+
+    /**
+     * Set the seed every run uses.
+     * @param seed The seed.
+     * @return This sweep, so calls can be chained.
+     */
+    public ParameterSweep setSeed(long seed)
+    {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Set how many runs may proceed at once.
+     * @param threads The number of worker threads.
+     * @return This sweep, so calls can be chained.
+     */
+    public ParameterSweep setThreads(int threads)
+    {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Run every combination of evenly spaced values.
+     * @param levels How many values to try across each range, at least one.
+     * @return One result per combination.
+     * @throws IllegalArgumentException If levels is less than one, or
+     *         there are too many combinations to count in an int.
+     */
+    public List<SweepResult> runGrid(int levels)
+    {
+        if(levels < 1) {
+            throw new IllegalArgumentException("A grid needs at least one level, not " + levels);
+        }
+        List<double[]> points = new ArrayList<>();
+        int dimensions = names.size();
+        int[] position = new int[dimensions];
+        int combinations = 1;
+        try {
+            for(int d = 0; d < dimensions; d++) {
+                combinations = Math.multiplyExact(combinations, levels);
+            }
+        }
+        catch(ArithmeticException e) {
+            throw new IllegalArgumentException(levels + " levels over " + dimensions
+                                               + " parameters is too many runs for a grid", e);
+        }
+        for(int i = 0; i < combinations; i++) {
+            double[] point = new double[dimensions];
+            for(int d = 0; d < dimensions; d++) {
+                double[] range = ranges.get(d);
+                double fraction = levels == 1 ? 0.5 : (double) position[d] / (levels - 1);
+                point[d] = range[0] + fraction * (range[1] - range[0]);
+            }
+            points.add(point);
+            // Advance the position like an odometer.
+            for(int d = 0; d < dimensions && ++position[d] == levels; d++) {
+                position[d] = 0;
+            }
+        }
+        return runAll(points);
+    }
+
+    /**
+     * Run a Latin hypercube sample: each range is cut into as many
+     * strata as there are samples, and every stratum of every range is
+     * used exactly once.
+     * @param samples The number of runs.
+     * @param designSeed The seed used to lay out the sample.
+     * @return One result per sample.
+     */
+    public List<SweepResult> runLatinHypercube(int samples, long designSeed)
+    {
+        Random design = new Random(designSeed);
+        int dimensions = names.size();
+        double[][] points = new double[samples][dimensions];
+        for(int d = 0; d < dimensions; d++) {
+            int[] strata = new int[samples];
+            for(int i = 0; i < samples; i++) {
+                strata[i] = i;
+            }
+            for(int i = samples - 1; i > 0; i--) {
+                int j = design.nextInt(i + 1);
+                int swap = strata[i];
+                strata[i] = strata[j];
+                strata[j] = swap;
+            }
+            double[] range = ranges.get(d);
+            for(int i = 0; i < samples; i++) {
+                double fraction = (strata[i] + design.nextDouble()) / samples;
+                points[i][d] = range[0] + fraction * (range[1] - range[0]);
+            }
+        }
+        List<double[]> list = new ArrayList<>();
+        for(double[] point : points) {
+            list.add(point);
+        }
+        return runAll(list);
+    }
+
+    /**
+     * Run every point on a pool of worker threads.
+     * @param points The values for each run.
+     * @return The results, in the same order as the points.
+     */
+    private List<SweepResult> runAll(List<double[]> points)
+    {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SweepResult>> runs = new ArrayList<>();
+            for(double[] point : points) {
+                runs.add(workers.submit(() -> runOne(point)));
+            }
+            List<SweepResult> results = new ArrayList<>();
+            for(Future<SweepResult> run : runs) {
+                results.add(run.get());
+            }
+            return results;
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the sweep", e);
+        }
+        catch(ExecutionException e) {
+            throw new IllegalStateException("A simulation in the sweep failed", e.getCause());
+        }
+        finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Run one simulation until it completes, stops being viable or the
+     * watched species dies out.
+     * @param point The values of the swept parameters.
+     * @return The outcome of the run.
+     */
+    private SweepResult runOne(double[] point)
+    {
+        Parameters parameters = base;
+        for(int d = 0; d < point.length; d++) {
+            parameters = parameters.with(names.get(d), point[d]);
+        }
+        Simulator simulator = new Simulator(depth, width, seed, parameters);
+        int watchedCode = watched == null ? -1 : Species.codeOf(watched);
+
+        int step = 0;
+        int[] counts = simulator.getField().getPopulations();
+        SweepResult.Outcome outcome = SweepResult.Outcome.COMPLETED;
+        while(step < maxSteps) {
+            if(watchedCode >= 0 && (watchedCode >= counts.length || counts[watchedCode] == 0)) {
+                outcome = SweepResult.Outcome.EXTINCT;
+                break;
+            }
+            if(!simulator.isViable()) {
+                outcome = SweepResult.Outcome.NOT_VIABLE;
+                break;
+            }
+            simulator.simulateOneStep();
+            step++;
+            counts = simulator.getField().getPopulations();
+        }
+        return new SweepResult(names.toArray(new String[0]), point, step, outcome, counts);
+    }
+}
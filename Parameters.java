@@ -0,0 +1,182 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * The tunable settings of a simulation: the traits of every species
+ * and the diseases that can appear. A field carries one Parameters
+ * object and every organism reads its traits from it when created.
+ *
+ * Parameters are immutable. A value can be changed by name, giving a
+ * new Parameters object, which is how parameter sweeps build their
+ * configurations. Names take the form "Species.trait", such as
+ * "Tiger.maxAge", or "Disease Name.rate", such as "Ebola.contagiousness"
+ * or "Ebola.mortalityRate".
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class Parameters
+{
+    // The parameters every simulation uses unless told otherwise.
+    private static final Parameters defaults = createDefaults();
+
+    // The traits of each species.
+    private final Map<Class<?>, SpeciesTraits> traits;
+    // The diseases that can appear in the simulation.
+    private final Disease[] diseases;
+
+    /**
+     * Create parameters from their parts.
+     * @param traits The traits of each species.
+     * @param diseases The diseases that can appear.
+     */
+    private Parameters(Map<Class<?>, SpeciesTraits> traits, Disease[] diseases)
+    {
+        if(diseases.length > Long.SIZE) {
+            // Organisms keep one bit of a long for each disease.
+            throw new IllegalArgumentException("At most " + Long.SIZE + " diseases are supported");
+        }
+        this.traits = traits;
+        this.diseases = diseases;
+    }
+
+    /**
+     * @return The default parameters, as built into each species class.
+     */
+    public static Parameters defaults()
+    {
+        return defaults;
+    }
+
+    /**
+     * Build the default parameters.
+     */
+    private static Parameters createDefaults()
+    {
+        Map<Class<?>, SpeciesTraits> traits = new LinkedHashMap<>();
+        traits.put(Beaver.class, Beaver.DEFAULT_TRAITS);
+        traits.put(Jackal.class, Jackal.DEFAULT_TRAITS);
+        traits.put(Bear.class, Bear.DEFAULT_TRAITS);
+        traits.put(Deer.class, Deer.DEFAULT_TRAITS);
+        traits.put(Tiger.class, Tiger.DEFAULT_TRAITS);
+        traits.put(Plant.class, Plant.DEFAULT_TRAITS);
+        return new Parameters(traits, Disease.defaultDiseases());
+    }
+
+    /**
+     * Return the traits of a species.
+     * @param species The class of organism.
+     * @return Its traits.
+     */
+    public SpeciesTraits traitsOf(Class<?> species)
+    {
+        SpeciesTraits found = traits.get(species);
+        if(found == null) {
+            throw new IllegalArgumentException("No traits for " + species.getName());
+        }
+        return found;
+    }
+
+    /**
+     * Choose one of the diseases at random.
+     * @param rand The random number generator to draw from.
+     * @return A disease, or null if there are none.
+     */
+    public Disease getRandomDisease(RandomGenerator rand)
+    {
+        if(diseases.length == 0) {
+            return null;
+        }
+        return diseases[rand.nextInt(diseases.length)];
+    }
+
+    /**
+     * @return The number of diseases that can appear.
+     */
+    public int getDiseaseCount()
+    {
+        return diseases.length;
+    }
+
+    /**
+     * Return one of the diseases that can appear.
+     * @param index The disease's position, from 0 to getDiseaseCount() - 1.
+     * @return The disease.
+     */
+    public Disease getDisease(int index)
+    {
+        return diseases[index];
+    }
+
+    /**
+     * Find the position of a disease.
+     * @param disease One of the diseases that can appear.
+     * @return Its position, from 0 to getDiseaseCount() - 1.
+     */
+    public int indexOfDisease(Disease disease)
+    {
+        for(int i = 0; i < diseases.length; i++) {
+            if(diseases[i] == disease) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No disease called " + disease.getName() + " in these parameters");
+    }
+
+    /**
+     * Return a copy with one value changed.
+     * @param name The name of the value, such as "Tiger.maxAge" or
+     *             "Ebola.mortalityRate".
+     * @param value The new value.
+     * @return The changed copy.
+     */
+    public Parameters with(String name, double value)
+    {
+        int dot = name.lastIndexOf('.');
+        if(dot < 0) {
+            throw new IllegalArgumentException("Parameter names look like Species.trait, not " + name);
+        }
+        String owner = name.substring(0, dot);
+        String property = name.substring(dot + 1);
+
+        for(Class<?> species : traits.keySet()) {
+            if(species.getName().equals(owner)) {
+                Map<Class<?>, SpeciesTraits> changed = new LinkedHashMap<>(traits);
+                changed.put(species, traits.get(species).with(property, value));
+                return new Parameters(changed, diseases);
+            }
+        }
+        for(int i = 0; i < diseases.length; i++) {
+            if(diseases[i].getName().equals(owner)) {
+                Disease[] changed = diseases.clone();
+                changed[i] = diseases[i].with(property, value);
+                return new Parameters(traits, changed);
+            }
+        }
+        throw new IllegalArgumentException("No species or disease called " + owner);
+    }
+
+    /**
+     * Return a value by name.
+     * @param name The name of the value, such as "Tiger.maxAge".
+     * @return Its value.
+     */
+    public double get(String name)
+    {
+        int dot = name.lastIndexOf('.');
+        String owner = dot < 0 ? name : name.substring(0, dot);
+        String property = name.substring(dot + 1);
+        for(Class<?> species : traits.keySet()) {
+            if(species.getName().equals(owner)) {
+                return traits.get(species).get(property);
+            }
+        }
+        for(Disease disease : diseases) {
+            if(disease.getName().equals(owner)) {
+                return disease.get(property);
+            }
+        }
+        throw new IllegalArgumentException("No species or disease called " + owner);
+    }
+}
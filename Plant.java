@@ -1,5 +1,5 @@
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Class Plant - Represents a plant in the simulation
@@ -12,18 +12,33 @@ public class Plant extends Organism
     //Constant probabilities for plants
     public static final double creationProbability = 0.1;
     private static final double randomSpawningProbability = 0.0001;
-    private static final double chanceOfDeathInDrought = 0.05;
-    private static final Random rand = Randomizer.getRandom();
+    // The traits a plant has unless the simulation's parameters say otherwise
+    public static final SpeciesTraits DEFAULT_TRAITS =
+        new SpeciesTraits(0, 0, 0.12, 6, 1, 0.1, 0.0001, creationProbability,
+                          randomSpawningProbability, 0.05);
+
+    // The chance of the plant dying in a drought at any step
+    private final double chanceOfDeathInDrought;
 
     /**
      * Constructor for objects of class Plant
      */
     public Plant(Field field, Location location){
-        super(field, location, 1, 0.1, 0.12, 6, 0.0001);
+        this(field, location, field.getParameters().traitsOf(Plant.class));
         // Location variable refers to 
         // the set location of animals species
     }
 
+    /**
+     * Create a plant with the given traits
+     */
+    private Plant(Field field, Location location, SpeciesTraits traits)
+    {
+        super(field, location, traits.getTrophicLevel(), traits.getChanceOfDeathInSnow(),
+              traits.getBreedingProbability(), traits.getMaxOffspring(), traits.getDiseaseMutationProbability());
+        chanceOfDeathInDrought = traits.getChanceOfDeathInDrought();
+    }
+
     /**
      *  May give birth or may not
      * @param newOrganisms A list to receive newly born animals.
@@ -57,12 +72,26 @@ public class Plant extends Organism
 	}
 
     /**
-     * Calculates randomly whether or not a plant will spawn for a given spot
-     * @return whether or not a plant will spawn for a given spot
+     * Calculates randomly how many free spots are passed over before a
+     * plant spawns in one. A plant spawns in each free spot with the
+     * spawn probability, so the count follows a geometric distribution
+     * and is drawn with a single random number.
+     * @param rand The random number generator to draw from
+     * @param traits The traits of plants in the simulation
+     * @return The number of free spots without a plant before the next
+     *         spot with one, or Long.MAX_VALUE if plants never spawn
      */
-	public static boolean willSpawn()
+	public static long freeSpotsBeforeSpawn(RandomGenerator rand, SpeciesTraits traits)
     {
-        return rand.nextDouble() <= randomSpawningProbability;
+        double probability = traits.getSpawnProbability();
+        if(probability >= 1) {
+            return 0;
+        }
+        if(probability <= 0) {
+            return Long.MAX_VALUE;
+        }
+        // Casting saturates, so a vanishing probability gives Long.MAX_VALUE.
+        return (long) (Math.log(1 - rand.nextDouble()) / Math.log1p(-probability));
     }
 
     /**
@@ -73,7 +102,7 @@ public class Plant extends Organism
     {
         if(rand.nextDouble() <= chanceOfDeathInSnow)
         {
-            setDead();
+            setDead(DeathCause.SNOW);
         }
     }
 
@@ -85,7 +114,7 @@ public class Plant extends Organism
     {
         if(rand.nextDouble() <= chanceOfDeathInDrought)
         {
-            setDead();
+            setDead(DeathCause.DROUGHT);
         }
     }
 
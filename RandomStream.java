@@ -0,0 +1,95 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * A fast random number generator that can be split into independent
+ * streams. It uses the SplitMix64 algorithm, the same one behind
+ * java.util.SplittableRandom, but keeps its state in one plain long
+ * that can be read and restored.
+ *
+ * A stream is not thread-safe and does no locking. Instead every
+ * organism is given a stream of its own, split from the field's root
+ * stream by the step and cell it was created in. Draws never contend,
+ * and the numbers an organism sees do not depend on which thread runs
+ * it or on what any other organism has drawn.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class RandomStream implements RandomGenerator
+{
+    // The step between successive states, an odd approximation of 2^64 / phi.
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // The current state of the stream.
+    private long state;
+
+    /**
+     * Create a stream from a seed.
+     * @param seed The seed. Equal seeds give equal streams.
+     */
+    public RandomStream(long seed)
+    {
+        state = mix64(seed);
+    }
+
+    /**
+     * Create a stream that continues from a saved state.
+     * @param state A value returned by getState.
+     * @return The stream.
+     */
+    public static RandomStream fromState(long state)
+    {
+        RandomStream stream = new RandomStream(0);
+        stream.state = state;
+        return stream;
+    }
+
+    /**
+     * @return The next 64 random bits.
+     */
+    @Override
+    public long nextLong()
+    {
+        return mix64(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Derive an independent stream from this one and a key, such as a
+     * cell, an organism id or a step number. This stream is not
+     * advanced, so the same key always gives the same stream until
+     * this one is drawn from.
+     * @param key The key identifying the new stream.
+     * @return The new stream.
+     */
+    public RandomStream split(long key)
+    {
+        return new RandomStream(state ^ mix64(key + GOLDEN_GAMMA));
+    }
+
+    /**
+     * @return The state of the stream, for saving it.
+     */
+    public long getState()
+    {
+        return state;
+    }
+
+    /**
+     * Continue the stream from a saved state.
+     * @param state A value returned by getState.
+     */
+    public void setState(long state)
+    {
+        this.state = state;
+    }
+
+    /**
+     * Scramble the bits of a value. This is the finaliser of SplitMix64.
+     */
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
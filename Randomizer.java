@@ -1,10 +1,11 @@
-import java.util.Random;
-
 /**
  * Provide control over the randomization of the simulation. By using the shared, fixed-seed 
  * randomizer, repeated runs will perform exactly the same (which helps with testing). Set 
  * 'useShared' to false to get different random behaviour every time.
  * 
+ * The generators are RandomStreams, which split into one independent
+ * stream per organism so that parallel runs draw without contention.
+ * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
@@ -12,8 +13,8 @@ public class Randomizer
 {
     // The default seed for control of randomization.
     private static final int SEED = 1111;
-    // A shared Random object, if required.
-    private static final Random rand = new Random(SEED);
+    // A shared random stream, if required.
+    private static final RandomStream rand = new RandomStream(SEED);
     // Determine whether a shared random generator is to be provided.
     private static final boolean useShared = true;
 
@@ -27,27 +28,37 @@ public class Randomizer
 
     /**
      * Provide a random generator.
-     * @return A random object.
+     * @return A random stream.
      */
-    public static Random getRandom()
+    public static RandomStream getRandom()
     {
         if(useShared) {
             return rand;
         }
         else {
-            return new Random();
+            return new RandomStream(System.nanoTime());
         }
     }
+
+    /**
+     * Provide a random generator of its own for one simulation.
+     * @param seed The seed. Equal seeds give equal streams.
+     * @return A new random stream.
+     */
+    public static RandomStream newStream(long seed)
+    {
+        return new RandomStream(seed);
+    }
     
     /**
      * Reset the randomization.
      * This will have no effect if randomization is not through
-     * a shared Random generator.
+     * a shared random stream.
      */
     public static void reset()
     {
         if(useShared) {
-            rand.setSeed(SEED);
+            rand.setState(new RandomStream(SEED).getState());
         }
     }
 }
@@ -0,0 +1,367 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Rebuilds the field at any step of a run recorded by an EventRecorder,
+ * without running the simulation again.
+ *
+ * Opening a log scans it once to find its keyframes. Moving to a step
+ * starts from the last keyframe at or before it, or carries on from
+ * the current step if that is closer, and applies the recorded births,
+ * moves and deaths in order. A move takes its species from the cell
+ * it leaves, which holds only that organism. The rebuilt field holds
+ * species codes but no organisms, which is all a SimulatorView needs
+ * to draw it.
+ *
+ * If the recorded simulator was reset, only the run after the last
+ * reset can be replayed.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class Replayer
+{
+    /**
+     * Play a recorded run in a window.
+     * @param args The log file, then optionally the first and last steps to show.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length == 0) {
+            System.out.println("Usage: java Replayer <log file> [first step] [last step]");
+            return;
+        }
+        Replayer replayer = new Replayer(Paths.get(args[0]));
+        int from = args.length > 1 ? Integer.parseInt(args[1]) : replayer.getFirstStep();
+        int to = args.length > 2 ? Integer.parseInt(args[2]) : replayer.getLastStep();
+        replayer.seek(from);
+        Field field = replayer.getField();
+        replayer.play(SimulatorView.createDefault(field.getDepth(), field.getWidth()), from, to, 70);
+    }
+
+    // The whole log.
+    private final byte[] log;
+    // The steps and offsets of the keyframes of the last run.
+    private int[] keyframeSteps;
+    private int[] keyframeOffsets;
+    private int keyframes;
+    // The last step the log reaches.
+    private int lastStep;
+    // The local species code for each code used in the log.
+    private byte[] localCodes;
+
+    // The rebuilt field, created from the first keyframe read.
+    private Field field;
+    // The step and weather the field shows.
+    private int step;
+    private Weather weather;
+    // Where reading continues from, or -1 if nothing has been read yet.
+    private int position;
+    // The cell of the last event read.
+    private int lastCell;
+
+    /**
+     * Open a log written by an EventRecorder.
+     * @param file The log file.
+     * @throws IOException If the file cannot be read or is not an event log.
+     */
+    public Replayer(Path file) throws IOException
+    {
+        log = Files.readAllBytes(file);
+        if(log.length < 4 || readInt(0) != EventRecorder.MAGIC) {
+            throw new IOException(file + " is not an event log");
+        }
+        keyframeSteps = new int[16];
+        keyframeOffsets = new int[16];
+        localCodes = new byte[Species.count()];
+        index();
+        if(keyframes == 0) {
+            throw new IOException(file + " holds no keyframe");
+        }
+        position = -1;
+    }
+
+    /**
+     * @return The first step that can be replayed.
+     */
+    public int getFirstStep()
+    {
+        return keyframeSteps[0];
+    }
+
+    /**
+     * @return The last step that can be replayed.
+     */
+    public int getLastStep()
+    {
+        return lastStep;
+    }
+
+    /**
+     * Rebuild the field as it was at the end of a step.
+     * @param target The step, from getFirstStep() to getLastStep().
+     */
+    public void seek(int target)
+    {
+        if(target < getFirstStep() || target > lastStep) {
+            throw new IllegalArgumentException("Step " + target + " is not between "
+                                               + getFirstStep() + " and " + lastStep);
+        }
+        int keyframe = keyframes - 1;
+        while(keyframeSteps[keyframe] > target) {
+            keyframe--;
+        }
+        if(position < 0 || step > target || step < keyframeSteps[keyframe]) {
+            position = keyframeOffsets[keyframe];
+            readRecord();
+        }
+        while(step < target) {
+            readRecord();
+        }
+    }
+
+    /**
+     * @return The field as it was at the step last sought. It is reused
+     *         by the next seek.
+     */
+    public Field getField()
+    {
+        return field;
+    }
+
+    /**
+     * @return The step last sought.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The weather at the step last sought.
+     */
+    public Weather getWeather()
+    {
+        return weather;
+    }
+
+    /**
+     * Show a range of steps in a view, one after another.
+     * @param view The view to show them in.
+     * @param from The first step to show.
+     * @param to The last step to show.
+     * @param delay The pause between steps, in milliseconds.
+     */
+    public void play(SimulatorView view, int from, int to, int delay)
+    {
+        for(int shown = from; shown <= to; shown++) {
+            seek(shown);
+            view.showStatus(field, Simulator.dayOf(shown), Simulator.hourOf(shown),
+                            Simulator.minuteOf(shown), weather);
+            try {
+                Thread.sleep(delay);
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Scan the whole log, noting where its keyframes are, its last step
+     * and the names of its species.
+     */
+    private void index() throws IOException
+    {
+        position = 4;
+        while(position < log.length) {
+            int start = position;
+            int kind = log[position++];
+            switch(kind) {
+                case EventRecorder.STEP_END:
+                    lastStep = readVarint();
+                    position++;
+                    break;
+                case EventRecorder.KEYFRAME:
+                    int keyframeStep = readVarint();
+                    if(keyframes > 0 && keyframeStep <= keyframeSteps[keyframes - 1]) {
+                        // The simulator was reset; forget the earlier run.
+                        keyframes = 0;
+                    }
+                    addKeyframe(keyframeStep, start);
+                    lastStep = keyframeStep;
+                    position++;
+                    int cells = readVarint() * readVarint();
+                    int cell = 0;
+                    while(cell < cells) {
+                        cell += readVarint();
+                        position++;
+                    }
+                    break;
+                case EventRecorder.SPECIES:
+                    int code = log[position++];
+                    String name = readName();
+                    try {
+                        if(code >= localCodes.length) {
+                            localCodes = Arrays.copyOf(localCodes, code + 1);
+                        }
+                        localCodes[code] = Species.codeOf(Class.forName(name));
+                    }
+                    catch(ClassNotFoundException e) {
+                        throw new IOException("The log holds an unknown species " + name, e);
+                    }
+                    break;
+                case EventRecorder.DISEASE:
+                    readVarint();
+                    readName();
+                    break;
+                case EventRecorder.BIRTH:
+                case EventRecorder.DEATH:
+                    position++;
+                    readVarint();
+                    break;
+                case EventRecorder.MOVE:
+                case EventRecorder.INFECTION:
+                    readVarint();
+                    readVarint();
+                    break;
+                default:
+                    throw new IOException("Unknown record " + kind + " at byte " + start);
+            }
+        }
+    }
+
+    /**
+     * Read one record and apply it to the field.
+     */
+    private void readRecord()
+    {
+        int kind = log[position++];
+        switch(kind) {
+            case EventRecorder.STEP_END:
+                step = readVarint();
+                weather = Weather.values()[log[position++]];
+                break;
+            case EventRecorder.KEYFRAME:
+                readKeyframe();
+                break;
+            case EventRecorder.SPECIES:
+                position++;
+                readName();
+                break;
+            case EventRecorder.DISEASE:
+                readVarint();
+                readName();
+                break;
+            case EventRecorder.BIRTH:
+                byte code = localCodes[log[position++]];
+                field.setSpeciesAt(readCell(), code);
+                break;
+            case EventRecorder.MOVE:
+                int from = readCell();
+                int to = from + EventRecorder.unzigzag(readVarint());
+                lastCell = to;
+                field.setSpeciesAt(to, field.getSpeciesAt(from));
+                field.setSpeciesAt(from, Species.NONE);
+                break;
+            case EventRecorder.DEATH:
+                position++;
+                field.setSpeciesAt(readCell(), Species.NONE);
+                break;
+            case EventRecorder.INFECTION:
+                readVarint();
+                readCell();
+                break;
+            default:
+                throw new IllegalStateException("Unknown record " + kind);
+        }
+    }
+
+    /**
+     * Read a keyframe, replacing the whole field.
+     */
+    private void readKeyframe()
+    {
+        step = readVarint();
+        weather = Weather.values()[log[position++]];
+        int depth = readVarint();
+        int width = readVarint();
+        if(field == null) {
+            field = new Field(depth, width);
+        }
+        int cell = 0;
+        int size = depth * width;
+        while(cell < size) {
+            int run = readVarint();
+            byte code = localCodes[log[position++]];
+            for(int end = cell + run; cell < end; cell++) {
+                field.setSpeciesAt(cell, code);
+            }
+        }
+        lastCell = 0;
+    }
+
+    /**
+     * Note a keyframe's step and offset.
+     */
+    private void addKeyframe(int keyframeStep, int offset)
+    {
+        if(keyframes == keyframeSteps.length) {
+            keyframeSteps = Arrays.copyOf(keyframeSteps, keyframes * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+        }
+        keyframeSteps[keyframes] = keyframeStep;
+        keyframeOffsets[keyframes] = offset;
+        keyframes++;
+    }
+
+    /**
+     * Read a cell written relative to the last one.
+     */
+    private int readCell()
+    {
+        lastCell += EventRecorder.unzigzag(readVarint());
+        return lastCell;
+    }
+
+    /**
+     * Read a number written seven bits at a time.
+     */
+    private int readVarint()
+    {
+        int value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = log[position++];
+            value |= (next & 0x7F) << shift;
+            shift += 7;
+        } while(next < 0);
+        return value;
+    }
+
+    /**
+     * Read a name written as its length and UTF-8 bytes.
+     */
+    private String readName()
+    {
+        int length = readVarint();
+        String name = new String(log, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return name;
+    }
+
+    /**
+     * Read four bytes, high byte first.
+     */
+    private int readInt(int offset)
+    {
+        return ((log[offset] & 0xFF) << 24) | ((log[offset + 1] & 0xFF) << 16)
+               | ((log[offset + 2] & 0xFF) << 8) | (log[offset + 3] & 0xFF);
+    }
+}
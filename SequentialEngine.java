@@ -0,0 +1,32 @@
+import java.util.List;
+
+/**
+ * The original step engine: organisms act one after another, in the
+ * order they are held, on the simulator's own thread.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class SequentialEngine implements StepEngine
+{
+    /**
+     * Let every live organism act in turn.
+     * @param organisms The organisms in the simulation.
+     * @param newOrganisms A list to receive newly born organisms.
+     * @param field The field the organisms live in.
+     * @param weather The weather during this step.
+     * @param isDayTime True if this step is during the day.
+     */
+    public void actAll(List<Organism> organisms, List<Organism> newOrganisms, Field field,
+                       Weather weather, boolean isDayTime)
+    {
+        StepMetrics metrics = field.getMetrics();
+        int count = organisms.size();
+        for (int i = 0; i < count; i++) {
+            Organism organism = organisms.get(i);
+            if (organism.isAlive()) {
+                metrics.act(organism, newOrganisms, weather, isDayTime);
+            }
+        }
+    }
+}
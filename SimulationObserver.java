@@ -0,0 +1,27 @@
+/**
+ * Something that wants to follow a simulation as it runs, such as
+ * the graphical SimulatorView. A simulator works without any
+ * observers at all, which is how headless batch runs are made.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public interface SimulationObserver
+{
+    /**
+     * Called after the simulation has been reset and after every step.
+     * @param simulator The simulation that has changed.
+     */
+    void update(Simulator simulator);
+
+    /**
+     * Say whether this observer is a display. While the simulator is
+     * running, displays are only told about the steps its Pacer chooses
+     * to show; other observers are told about every step.
+     * @return True if this observer only needs the steps that are shown.
+     */
+    default boolean isDisplay()
+    {
+        return false;
+    }
+}
@@ -1,5 +1,7 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.awt.Color;
+import java.util.concurrent.Future;
 
 /**
  * A simple predator-prey simulator, based on a rectangular field
@@ -13,12 +15,18 @@ public class Simulator
     /**
      * Entry point for simulation.
      * Creates a default simulator and runs it
-     * @param args Any array of strings - they do not affect this method
+     * @param args Pass "headless" to run without a window and print the
+     *             final population instead
      */
     public static void main(String[] args)
     {
-        Simulator simulator = new Simulator();
+        boolean headless = args.length > 0 && args[0].equals("headless");
+        Simulator simulator = new Simulator(DEFAULT_DEPTH, DEFAULT_WIDTH, !headless);
+        simulator.getMetrics().publish("main");
         simulator.runLongSimulation();
+        if(headless) {
+            System.out.println("Step " + simulator.getStep() + ": " + simulator.getPopulationDetails());
+        }
     }
 
     // Constants representing configuration information for the simulation.
@@ -28,20 +36,37 @@ public class Simulator
     private static final int DEFAULT_DEPTH = 100;
     // The probability of weather changing at any step
     private static final double weatherChangeProbability = 0.07;
-    // The probability of weather changing at any step
+    // The steps run a second when a window is showing, 0 for as many as
+    // the simulation can manage, and the most of them shown a second.
+    // setPace or setStepDelay slows the steps down for watching closely.
+    private static final double VIEW_STEPS_PER_SECOND = 0;
+    private static final double VIEW_FRAMES_PER_SECOND = 30;
 
     // List of animals in the field.
-    private List<Organism> organisms;
+    private OrganismStore organisms;
+    // Receives the organisms born during a step; reused every step.
+    private List<Organism> newborns;
+    // The organisms that act during the current night, gathered at dusk
+    // and kept up to date until dawn rather than gathered every step.
+    private List<Organism> nightActors;
+    // Whether nightActors holds the current night's actors.
+    private boolean nightActorsGathered;
     // The current state of the field.
     private Field field;
     // The current step of the simulation.
     private int step;
-    // A graphical view of the simulation.
-    private SimulatorView view;
+    // Observers following the simulation, such as a graphical view.
+    private List<SimulationObserver> observers;
+    // Statistics used to decide whether the simulation is still viable.
+    private FieldStats stats;
+    // Paces the steps of simulate and chooses which are shown.
+    private Pacer pacer;
     // The current weather in the simulation
     private Weather weather;
-    // Randomiser to allow for randomness in simulation
-    private Random rand = Randomizer.getRandom();
+    // Randomiser to allow for randomness in simulation; organisms split their own streams from it
+    private RandomStream rand;
+    // Decides how the organisms act during each step
+    private StepEngine engine;
 
     /**
      * Construct a simulation field with default size.
@@ -52,11 +77,65 @@ public class Simulator
     }
 
     /**
-     * Create a simulation field with the given size.
+     * Create a simulation field with the given size, shown in a window.
      * @param depth Depth of the field. Must be greater than zero.
      * @param width Width of the field. Must be greater than zero.
      */
     public Simulator(int depth, int width)
+    {
+        this(depth, width, true);
+    }
+
+    /**
+     * Create a simulation field with the given size.
+     * Either way simulate runs as fast as it can. With a view it shows
+     * at most 30 of the steps a second. Without one no window is
+     * created and no graphics classes are loaded.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param showView True to show the simulation in a window.
+     */
+    public Simulator(int depth, int width, boolean showView)
+    {
+        this(depth, width, showView, Randomizer.getRandom(), Parameters.defaults());
+    }
+
+    /**
+     * Create a simulation field with the given size and no window,
+     * drawing every random number from its own generator. Simulators
+     * with separate seeds share no state and can run side by side.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param seed The seed for the simulation's random numbers.
+     */
+    public Simulator(int depth, int width, long seed)
+    {
+        this(depth, width, seed, Parameters.defaults());
+    }
+
+    /**
+     * Create a simulation field with the given size and no window,
+     * drawing every random number from its own generator and taking
+     * species traits and disease rates from the given parameters.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param seed The seed for the simulation's random numbers.
+     * @param parameters The traits of every species and the diseases.
+     */
+    public Simulator(int depth, int width, long seed, Parameters parameters)
+    {
+        this(depth, width, false, Randomizer.newStream(seed), parameters);
+    }
+
+    /**
+     * Create a simulation field with the given size.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param showView True to show the simulation in a window.
+     * @param rand The root random stream for the simulation.
+     * @param parameters The traits of every species and the diseases.
+     */
+    private Simulator(int depth, int width, boolean showView, RandomStream rand, Parameters parameters)
     {
         if(width <= 0 || depth <= 0) {
             System.out.println("The dimensions must be greater than zero.");
@@ -65,20 +144,21 @@ public class Simulator
             width = DEFAULT_WIDTH;
         }
 
-        organisms = new ArrayList<>();
-        field = new Field(depth, width);
-
-        // Create a view of the state of each location in the field.
-        view = new SimulatorView(depth, width);
-		// Light yellow-orange
-        view.setColor(Jackal.class, new Color(255, 204, 51));
-        view.setColor(Bear.class, Color.GRAY);
-        view.setColor(Deer.class, Color.RED);
-		// Orange-brown
-        view.setColor(Tiger.class, new Color(255, 153, 0));
-		// Blue
-        view.setColor(Beaver.class,new Color(60, 80, 160));
-        view.setColor(Plant.class, Color.GREEN);
+        this.rand = rand;
+        organisms = new OrganismStore();
+        newborns = new ArrayList<>();
+        nightActors = new ArrayList<>();
+        field = new Field(depth, width, rand, parameters);
+        engine = new SequentialEngine();
+        observers = new ArrayList<>();
+        stats = new FieldStats();
+        pacer = new Pacer(0, 0);
+
+        if(showView) {
+            // Create a view of the state of each location in the field.
+            addObserver(SimulatorView.createDefault(depth, width));
+            pacer = new Pacer(VIEW_STEPS_PER_SECOND, VIEW_FRAMES_PER_SECOND);
+        }
 
         // Setup a valid starting point.
         reset();
@@ -105,13 +185,43 @@ public class Simulator
     /**
      * Run the simulation from its current state for the given number of steps.
      * Stop before the given number of steps if it ceases to be viable.
+     * Steps are run and shown at the rates set by setPace, and the last
+     * step is always shown.
      * @param numSteps The number of steps to run for.
      */
     public void simulate(int numSteps){
-        for(int step = 1; step <= numSteps && view.isViable(field); step++) {
-            simulateOneStep();
-            delay(70);   // uncomment this to run more slowly
+        pacer.start();
+        boolean shown = true;
+        for(int step = 1; step <= numSteps && isViable(); step++) {
+            shown = simulateOneStep(pacer);
+            pacer.awaitNextStep();
         }
+        if(!shown) {
+            notifyObservers(true);
+        }
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * @return true If there is more than one species alive.
+     */
+    public boolean isViable()
+    {
+        long start = System.nanoTime();
+        stats.reset();
+        boolean viable = stats.isViable(field);
+        field.getMetrics().record(StepMetrics.Phase.STATS, System.nanoTime() - start);
+        return viable;
+    }
+
+    /**
+     * Describe how many of each species are alive.
+     * @return A string giving the count of each species.
+     */
+    public String getPopulationDetails()
+    {
+        stats.reset();
+        return stats.getPopulationDetails(field);
     }
 
     /**
@@ -120,35 +230,254 @@ public class Simulator
      * fox and rabbit.
      */
     public void simulateOneStep() {
+        simulateOneStep(null);
+    }
+
+    /**
+     * Run the simulation for a single step, telling displays about it
+     * only if a frame is due.
+     * @param pacer The pacer deciding whether the step is shown, or
+     *              null to show it.
+     * @return True if displays were told about the step.
+     */
+    private boolean simulateOneStep(Pacer pacer) {
+        StepMetrics metrics = field.getMetrics();
+        long stepStart = metrics.startStep();
         step++;
+        field.setStep(step);
         if (rand.nextDouble() <= weatherChangeProbability) {
             setRandomWeather();
         }
 
+        boolean dayTime = isDayTime(getCurrentHour());
+        // Age every animal and make it hungrier, killing only those the
+        // components' timing wheel has due this step.
+        field.getAnimalComponents().advanceLifecycle();
+        List<Organism> actors;
+        if(dayTime) {
+            actors = organisms;
+        }
+        else {
+            // Animals only age at night, so only organisms other than
+            // animals are given a turn. They are gathered once at dusk.
+            if(!nightActorsGathered) {
+                nightActors.clear();
+                for(Organism organism : organisms) {
+                    if(!(organism instanceof Animal) && organism.isAlive()) {
+                        nightActors.add(organism);
+                    }
+                }
+                nightActorsGathered = true;
+            }
+            actors = nightActors;
+        }
+        long phaseStart = metrics.endPhase(StepMetrics.Phase.LIFECYCLE, stepStart);
+
         // Provide space for newborn animals.snake
-        List<Organism> newAnimals = new ArrayList<>();
+        newborns.clear();
         // Let all rabbits act.
+        engine.actAll(actors, newborns, field, weather, dayTime);
+        phaseStart = metrics.endPhase(StepMetrics.Phase.ACT, phaseStart);
+        // Drop everything that died during the step in one pass.
+        organisms.removeDead();
+        if(dayTime) {
+            nightActorsGathered = false;
+        }
+        else {
+            nightActors.removeIf(organism -> !organism.isAlive());
+        }
+        phaseStart = metrics.endPhase(StepMetrics.Phase.REMOVE_DEAD, phaseStart);
 
-        for (Iterator<Organism> it = organisms.iterator(); it.hasNext(); ) {
-            Organism organism = it.next();
-            if (!organism.isAlive()) {
-                it.remove();
-            }
-            organism.act(newAnimals, weather, isDayTime(getCurrentHour()));
+        // Randomly spawns plants in empty spaces, jumping straight from
+        // one spawning space to the next over the free cells between them.
+        SpeciesTraits plantTraits = field.getParameters().traitsOf(Plant.class);
+        int cell = field.nextFreeCell(0, Plant.freeSpotsBeforeSpawn(rand, plantTraits));
+        while (cell >= 0) {
+            newborns.add(new Plant(field, field.locationOf(cell)));
+            cell = field.nextFreeCell(cell + 1, Plant.freeSpotsBeforeSpawn(rand, plantTraits));
         }
+        phaseStart = metrics.endPhase(StepMetrics.Phase.SPAWN, phaseStart);
 
-        // Randomly spawns plants in empty spaces
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                if (field.getObjectAt(row, col) == null && Plant.willSpawn()) {
-                    newAnimals.add(new Plant(field, new Location(row, col)));
+        // Add the newly born foxes and rabbits to the main lists.
+        organisms.addAll(newborns);
+        if(!dayTime) {
+            // Newborns act from the next night step on, in the same
+            // order as they are in organisms.
+            for(Organism newborn : newborns) {
+                if(!(newborn instanceof Animal)) {
+                    nightActors.add(newborn);
                 }
             }
         }
+        EventRecorder recorder = field.getRecorder();
+        if(recorder != null) {
+            recorder.endStep(step, weather, field);
+        }
+        phaseStart = metrics.endPhase(StepMetrics.Phase.ADD_NEWBORNS, phaseStart);
+        boolean show = pacer == null || pacer.frameDue();
+        notifyObservers(show);
+        metrics.endPhase(StepMetrics.Phase.OBSERVERS, phaseStart);
+        metrics.endStep(step, organisms.size(), stepStart);
+        return show;
+    }
 
-        // Add the newly born foxes and rabbits to the main lists.
-        organisms.addAll(newAnimals);
-        view.showStatus(field, getCurrentDay(), getCurrentHour(), getCurrentMinute(), weather);
+    /**
+     * Save the state of the simulation to a file. The state is copied
+     * into memory straight away and written to disk in the background,
+     * so the simulation can carry on at once.
+     * @param file The file to write.
+     * @return A future that completes with the file once it is on disk.
+     */
+    public Future<Path> checkpoint(Path file)
+    {
+        return Checkpoint.capture(step, weather, field, organisms).writeAsync(file);
+    }
+
+    /**
+     * Replace the state of the simulation with one saved by checkpoint.
+     * The simulator must have the same field size and parameters as
+     * the one that saved it.
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or does not fit this simulator.
+     */
+    public void restore(Path file) throws IOException
+    {
+        Checkpoint checkpoint = Checkpoint.read(file);
+        organisms.clear();
+        nightActorsGathered = false;
+        field.clear();
+        checkpoint.restore(field, organisms);
+        step = checkpoint.getStep();
+        weather = checkpoint.getWeather();
+        writeKeyframe();
+        notifyObservers();
+    }
+
+    /**
+     * Record every change to the field from now on, so the run can be
+     * replayed later. The recorder starts with a keyframe of the field
+     * as it is now.
+     * @param recorder The recorder, or null to stop recording.
+     */
+    public void setRecorder(EventRecorder recorder)
+    {
+        field.setRecorder(recorder);
+        writeKeyframe();
+    }
+
+    /**
+     * Write a keyframe of the whole field if the run is being recorded.
+     */
+    private void writeKeyframe()
+    {
+        EventRecorder recorder = field.getRecorder();
+        if(recorder != null) {
+            recorder.keyframe(step, weather, field);
+        }
+    }
+
+    /**
+     * Choose how organisms act during each step, such as sequentially
+     * or in parallel with a CheckerboardEngine.
+     * @param engine The engine to use from the next step on.
+     */
+    public void setEngine(StepEngine engine)
+    {
+        this.engine = engine;
+    }
+
+    /**
+     * Start telling an observer about every change to the simulation.
+     * @param observer The observer to add.
+     */
+    public void addObserver(SimulationObserver observer)
+    {
+        observers.add(observer);
+    }
+
+    /**
+     * Stop telling an observer about changes to the simulation.
+     * @param observer The observer to remove.
+     */
+    public void removeObserver(SimulationObserver observer)
+    {
+        observers.remove(observer);
+    }
+
+    /**
+     * Set how fast simulate runs, keeping the rate at which steps are shown.
+     * @param millisec The time each step should take, in milliseconds.
+     *                 Zero runs at full speed.
+     */
+    public void setStepDelay(int millisec)
+    {
+        setPace(millisec == 0 ? 0 : 1000.0 / millisec, pacer.getFramesPerSecond());
+    }
+
+    /**
+     * Set how fast simulate runs and how often its steps are shown.
+     * Displays such as the view are only told about the steps shown,
+     * so the simulation can run at full speed with a smooth view.
+     * @param stepsPerSecond The steps to run a second, or 0 for full speed.
+     * @param framesPerSecond The most steps to show a second, or 0 to show every step.
+     */
+    public void setPace(double stepsPerSecond, double framesPerSecond)
+    {
+        pacer = new Pacer(stepsPerSecond, framesPerSecond);
+    }
+
+    /**
+     * Tell every observer that the simulation has changed.
+     */
+    private void notifyObservers()
+    {
+        notifyObservers(true);
+    }
+
+    /**
+     * Tell observers that the simulation has changed.
+     * @param displays True to tell displays as well as other observers.
+     */
+    private void notifyObservers(boolean displays)
+    {
+        for(SimulationObserver observer : observers) {
+            if(displays || !observer.isDisplay()) {
+                observer.update(this);
+            }
+        }
+    }
+
+    /**
+     * @return The timings of this simulation's steps, which can be
+     *         published over JMX.
+     */
+    public StepMetrics getMetrics()
+    {
+        return field.getMetrics();
+    }
+
+    /**
+     * @return The field the simulation runs in.
+     */
+    public Field getField()
+    {
+        return field;
+    }
+
+    /**
+     * @return The number of steps since the simulation was reset.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The current weather.
+     */
+    public Weather getWeather()
+    {
+        return weather;
     }
 
     /**
@@ -156,7 +485,7 @@ public class Simulator
      */
     public int getCurrentDay()
     {
-        return step / 72;
+        return dayOf(step);
     }
 
     /**
@@ -164,13 +493,40 @@ public class Simulator
      */
     public int getCurrentHour()
     {
-        return (step / 3) % 24;
+        return hourOf(step);
     }
 
     /**
      * Calculate the current minute.
      */
     public int getCurrentMinute()
+    {
+        return minuteOf(step);
+    }
+
+    /**
+     * Calculate the day a step falls on.
+     * @param step The step.
+     */
+    public static int dayOf(int step)
+    {
+        return step / 72;
+    }
+
+    /**
+     * Calculate the hour a step falls in.
+     * @param step The step.
+     */
+    public static int hourOf(int step)
+    {
+        return (step / 3) % 24;
+    }
+
+    /**
+     * Calculate the minute a step falls on.
+     * @param step The step.
+     */
+    public static int minuteOf(int step)
     {
         return (step % 3) * 20;
     }
@@ -190,12 +546,15 @@ public class Simulator
     public void reset()
     {
         step = 0;
+        field.setStep(step);
         organisms.clear();
+        nightActorsGathered = false;
         setRandomWeather();
         populate();
+        writeKeyframe();
 
         // Show the starting state in the view.
-        view.showStatus(field, getCurrentDay(), getCurrentHour(), getCurrentMinute(), weather);
+        notifyObservers();
     }
 
     /**
@@ -204,35 +563,42 @@ public class Simulator
     private void populate()
     {
         field.clear();
+        Parameters parameters = field.getParameters();
+        double beaverProbability = parameters.traitsOf(Beaver.class).getCreationProbability();
+        double jackalProbability = parameters.traitsOf(Jackal.class).getCreationProbability();
+        double bearProbability = parameters.traitsOf(Bear.class).getCreationProbability();
+        double deerProbability = parameters.traitsOf(Deer.class).getCreationProbability();
+        double tigerProbability = parameters.traitsOf(Tiger.class).getCreationProbability();
+        double plantProbability = parameters.traitsOf(Plant.class).getCreationProbability();
         for(int row = 0; row < field.getDepth(); row++) {
             for(int col = 0; col < field.getWidth(); col++) {
-                if(rand.nextDouble() <= Beaver.creationProbability)
+                if(rand.nextDouble() <= beaverProbability)
                 {
                     Location location = new Location(row, col);
                     Beaver beaver = new Beaver(true, field, location);
                     organisms.add(beaver);
                 }
-                if(rand.nextDouble() <= Jackal.creationProbability) {
+                else if(rand.nextDouble() <= jackalProbability) {
                     Location location = new Location(row, col);
                     Jackal rabbit = new Jackal(true, field, location);
                     organisms.add(rabbit);
                 }
-                else if(rand.nextDouble() <= Bear.creationProbability) {
+                else if(rand.nextDouble() <= bearProbability) {
                     Location location = new Location(row, col);
                     Bear fox = new Bear(true, field, location);
                     organisms.add(fox);
                 }
-                else if(rand.nextDouble() <= Deer.creationProbability) {
+                else if(rand.nextDouble() <= deerProbability) {
                     Location location = new Location(row, col);
                     Deer snake = new Deer(true, field, location);
                     organisms.add(snake);
                 }
-                else if(rand.nextDouble() <= Tiger.creationProbability) {
+                else if(rand.nextDouble() <= tigerProbability) {
                     Location location = new Location(row, col);
                     Tiger tiger = new Tiger(true, field, location);
                     organisms.add(tiger);
                 }
-                else if(rand.nextDouble() <= Plant.creationProbability) {
+                else if(rand.nextDouble() <= plantProbability) {
                     Location location = new Location(row, col);
                     Plant plant = new Plant(field, location);
                     organisms.add(plant);
@@ -241,18 +607,4 @@ public class Simulator
             }
         }
     }
-
-    /**
-     * Pause for a given time.
-     * @param millisec  The time to pause for, in milliseconds
-     */
-    private void delay(int millisec)
-    {
-        try {
-            Thread.sleep(millisec);
-        }
-        catch (InterruptedException ie) {
-            // wake up
-        }
-    }
 }
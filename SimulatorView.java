@@ -1,7 +1,10 @@
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.swing.*;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A graphical view of the simulation grid.
@@ -10,10 +13,17 @@ import java.util.Map;
  * Colors for each type of species can be defined using the
  * setColor method.
  * 
+ * The simulation does not wait for the view. Each update copies the
+ * field into a FieldSnapshot and leaves it in a single slot, and the
+ * Swing event thread draws whatever snapshot is in the slot when it
+ * gets to it. If the simulation runs faster than the view can draw,
+ * snapshots that were never drawn are replaced by newer ones and
+ * dropped, so only the latest state is ever shown.
+ * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
-public class SimulatorView extends JFrame
+public class SimulatorView extends JFrame implements SimulationObserver
 {
     // Colors used for empty locations.
     private static final Color DAY_COLOR = Color.WHITE;
@@ -30,8 +40,14 @@ public class SimulatorView extends JFrame
     
     // A map for storing colors for participants in the simulation
     private Map<Class, Color> colors;
-    // A statistics object computing and storing simulation information
+    // The same colors as RGB values indexed by species code, rebuilt when new species appear
+    private int[] palette;
+    // A statistics object computing and storing simulation information; used on the event thread
     private FieldStats stats;
+    // The latest snapshot, waiting to be drawn, or null if it has been drawn
+    private final AtomicReference<FieldSnapshot> pending;
+    // The cells of a snapshot that has been drawn or dropped, to reuse for the next one
+    private final AtomicReference<byte[]> spare;
 
     /**
      * Create a view of the given width and height.
@@ -42,6 +58,8 @@ public class SimulatorView extends JFrame
     {
         stats = new FieldStats();
         colors = new LinkedHashMap<>();
+        pending = new AtomicReference<>();
+        spare = new AtomicReference<>();
 
         setTitle("Jungle Simulator");
         timeLabel = new JLabel(getTimeString(0, 0, 0), JLabel.CENTER);
@@ -67,6 +85,27 @@ public class SimulatorView extends JFrame
         setVisible(true);
     }
     
+    /**
+     * Create a view with the standard colors for every species.
+     * @param height The simulation's height.
+     * @param width  The simulation's width.
+     * @return The new view.
+     */
+    public static SimulatorView createDefault(int height, int width)
+    {
+        SimulatorView view = new SimulatorView(height, width);
+        // Light yellow-orange
+        view.setColor(Jackal.class, new Color(255, 204, 51));
+        view.setColor(Bear.class, Color.GRAY);
+        view.setColor(Deer.class, Color.RED);
+        // Orange-brown
+        view.setColor(Tiger.class, new Color(255, 153, 0));
+        // Blue
+        view.setColor(Beaver.class,new Color(60, 80, 160));
+        view.setColor(Plant.class, Color.GREEN);
+        return view;
+    }
+
     /**
      * Define a color to be used for a given class of animal.
      * @param organismClass The animal's Class object.
@@ -75,6 +114,7 @@ public class SimulatorView extends JFrame
     public void setColor(Class organismClass, Color color)
     {
         colors.put(organismClass, color);
+        palette = null;
     }
     /**
      * Display a short information label at the top of the window.
@@ -99,25 +139,93 @@ public class SimulatorView extends JFrame
         }
     }
 
+    /**
+     * Return the colors to use for each species code, building the
+     * palette again if species have been registered since it was made.
+     * @return An array of RGB colors indexed by species code.
+     */
+    private int[] getPalette()
+    {
+        int codes = Species.count();
+        if(palette == null || palette.length != codes) {
+            palette = new int[codes];
+            for(int code = 1; code < codes; code++) {
+                palette[code] = getColor(Species.classOf(code)).getRGB();
+            }
+        }
+        return palette;
+    }
+
+    /**
+     * Show the simulation's latest state.
+     * @param simulator The simulation that has changed.
+     */
+    public void update(Simulator simulator)
+    {
+        showStatus(simulator.getField(), simulator.getCurrentDay(), simulator.getCurrentHour(),
+                   simulator.getCurrentMinute(), simulator.getWeather());
+    }
+
+    /**
+     * @return True, as the view only needs the steps that are shown.
+     */
+    @Override
+    public boolean isDisplay()
+    {
+        return true;
+    }
+
     /**
      * Show the current status of the field.
      * Show the current time and day of the simulator.
+     * The field is copied straight away and drawn later on the event
+     * thread, so this may be called from any thread and returns at once.
      * @param field The field whose status is to be displayed.
      * @param days  The number of days since the simulator started
      * @param hours The number of hours since the simulator started
      * @param minutes The number of minutes since the simulator started
      */
     public void showStatus(Field field, int days, int hours, int minutes, Weather weather)
+    {
+        FieldSnapshot snapshot = new FieldSnapshot(field, days, hours, minutes, weather, spare.getAndSet(null));
+        FieldSnapshot dropped = pending.getAndSet(snapshot);
+        if(dropped == null) {
+            // The slot was empty, so nothing is waiting to draw it yet.
+            SwingUtilities.invokeLater(this::drawPending);
+        }
+        else {
+            // The last snapshot was never drawn and now never will be.
+            spare.set(dropped.getCells());
+        }
+    }
+
+    /**
+     * Draw the latest snapshot, if it has not been drawn already.
+     * Runs on the event thread.
+     */
+    private void drawPending()
+    {
+        FieldSnapshot snapshot = pending.getAndSet(null);
+        if(snapshot != null) {
+            draw(snapshot);
+            spare.set(snapshot.getCells());
+        }
+    }
+
+    /**
+     * Draw a snapshot of the field. Runs on the event thread.
+     * @param snapshot The snapshot to draw.
+     */
+    private void draw(FieldSnapshot snapshot)
     {
         if(!isVisible()) {
             setVisible(true);
         }
 
-        timeLabel.setText(getTimeString(days, hours, minutes));
-        weatherLabel.setText(WEATHER_PREFIX + weather.toString());
+        int hours = snapshot.getHour();
+        timeLabel.setText(getTimeString(snapshot.getDay(), hours, snapshot.getMinute()));
+        weatherLabel.setText(WEATHER_PREFIX + snapshot.getWeather().toString());
         stats.reset();
-        
-        fieldView.preparePaint();
 
         // Sorts out day/night weather
         Color currentColour = Simulator.isDayTime(hours) ? DAY_COLOR : NIGHT_COLOR;
@@ -136,22 +244,11 @@ public class SimulatorView extends JFrame
 		weatherLabel.setForeground(Color.DARK_GRAY);
 		}
 
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    stats.incrementCount(animal.getClass());
-                    fieldView.drawMark(col, row, getColor(animal.getClass()));
-                }
-                else {
-                    fieldView.drawMark(col, row, currentColour);
-                }
-            }
-        }
-        stats.countFinished();
+        fieldView.drawCells(snapshot, getPalette(), currentColour.getRGB());
+        stats.recordCounts(snapshot.getCounts());
 
-        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
-        fieldView.repaint();
+        // The counts have just been recorded, so the field is not needed.
+        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(null));
     }
 
     /**
@@ -173,15 +270,6 @@ public class SimulatorView extends JFrame
         return builder.toString();
     }
 
-    /**
-     * Determine whether the simulation should continue to run.
-     * @return true If there is more than one species alive.
-     */
-    public boolean isViable(Field field)
-    {
-        return stats.isViable(field);
-    }
-    
     /**
      * Provide a graphical view of a rectangular field. This is 
      * a nested class (a class defined inside a class) which
@@ -189,16 +277,26 @@ public class SimulatorView extends JFrame
      * component displays the field.
      * This is rather advanced GUI stuff - you can ignore this 
      * for your project if you like.
+     * 
+     * The field is kept as an image with one pixel per cell, whose
+     * pixels are written directly, and the image is scaled to the
+     * component in a single drawImage. Only cells that differ from
+     * those already shown are written, and only the rows holding them
+     * are repainted.
      */
     private class FieldView extends JPanel
     {
         private final int GRID_VIEW_SCALING_FACTOR = 6;
 
         private int gridWidth, gridHeight;
-        private int xScale, yScale;
-        Dimension size;
-        private Graphics g;
-        private Image fieldImage;
+        // The field with one pixel per cell, and its pixels.
+        private BufferedImage fieldImage;
+        private int[] pixels;
+        // The species code shown in each cell.
+        private byte[] shown;
+        // The colors the shown cells were drawn with, or null before anything is drawn.
+        private int[] shownColors;
+        private int shownBackground;
 
         /**
          * Create a new FieldView component.
@@ -207,7 +305,9 @@ public class SimulatorView extends JFrame
         {
             gridHeight = height;
             gridWidth = width;
-            size = new Dimension(0, 0);
+            fieldImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) fieldImage.getRaster().getDataBuffer()).getData();
+            shown = new byte[height * width];
         }
 
         /**
@@ -220,52 +320,44 @@ public class SimulatorView extends JFrame
         }
 
         /**
-         * Prepare for a new round of painting. Since the component
-         * may be resized, compute the scaling factor again.
+         * Draw the cells of a snapshot that differ from those shown.
+         * @param snapshot The snapshot to draw.
+         * @param colorOf The RGB color of each species code.
+         * @param background The RGB color of empty cells.
          */
-        public void preparePaint()
+        public void drawCells(FieldSnapshot snapshot, int[] colorOf, int background)
         {
-            if(! size.equals(getSize())) {  // if the size has changed...
-                size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
-
-                xScale = size.width / gridWidth;
-                if(xScale < 1) {
-                    xScale = GRID_VIEW_SCALING_FACTOR;
-                }
-                yScale = size.height / gridHeight;
-                if(yScale < 1) {
-                    yScale = GRID_VIEW_SCALING_FACTOR;
+            byte[] cells = snapshot.getCells();
+            // Every cell is drawn again when the colors change, such as when day turns to night.
+            boolean redrawAll = colorOf != shownColors || background != shownBackground;
+            int firstRow = gridHeight;
+            int lastRow = -1;
+            for(int cell = 0; cell < cells.length; cell++) {
+                byte code = cells[cell];
+                if(redrawAll || code != shown[cell]) {
+                    shown[cell] = code;
+                    pixels[cell] = code == Species.NONE ? background : colorOf[code];
+                    int row = cell / gridWidth;
+                    firstRow = Math.min(firstRow, row);
+                    lastRow = row;
                 }
             }
-        }
-        
-        /**
-         * Paint on grid location on this field in a given color.
-         */
-        public void drawMark(int x, int y, Color color)
-        {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale-1, yScale-1);
+            shownColors = colorOf;
+            shownBackground = background;
+            if(lastRow >= 0) {
+                int top = firstRow * getHeight() / gridHeight;
+                int bottom = ((lastRow + 1) * getHeight() + gridHeight - 1) / gridHeight;
+                repaint(0, top, getWidth(), bottom - top);
+            }
         }
 
         /**
-         * The field view component needs to be redisplayed. Copy the
-         * internal image to screen.
+         * The field view component needs to be redisplayed. Scale the
+         * field image to fill the component.
          */
         public void paintComponent(Graphics g)
         {
-            if(fieldImage != null) {
-                Dimension currentSize = getSize();
-                if(size.equals(currentSize)) {
-                    g.drawImage(fieldImage, 0, 0, null);
-                }
-                else {
-                    // Rescale the previous image.
-                    g.drawImage(fieldImage, 0, 0, currentSize.width, currentSize.height, null);
-                }
-            }
+            g.drawImage(fieldImage, 0, 0, getWidth(), getHeight(), null);
         }
     }
 }
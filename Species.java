@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assigns each class of organism a small, dense species code.
+ * Codes start at 1 so that 0 can stand for an empty cell in the
+ * field's species plane. Codes are handed out the first time a
+ * class is seen and never change for the life of the JVM.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class Species
+{
+    // The code used for an empty location.
+    public static final byte NONE = 0;
+    // The largest code that fits in the field's byte plane.
+    public static final int MAX_CODE = Byte.MAX_VALUE;
+
+    // The classes registered so far, indexed by code.
+    private static final List<Class<?>> classes = new ArrayList<>();
+    // Per-class cache of the code, so lookups do not need a lock.
+    private static final ClassValue<Byte> codes = new ClassValue<Byte>()
+    {
+        @Override
+        protected Byte computeValue(Class<?> type)
+        {
+            return register(type);
+        }
+    };
+
+    static {
+        // Reserve code 0 for empty locations.
+        classes.add(null);
+    }
+
+    /**
+     * Return the species code for the given class, registering
+     * it if this is the first time it has been seen.
+     * @param organismClass The class of organism.
+     * @return The species code, always greater than zero.
+     */
+    public static byte codeOf(Class<?> organismClass)
+    {
+        return codes.get(organismClass);
+    }
+
+    /**
+     * Return the class registered under the given code.
+     * @param code A species code.
+     * @return The class, or null if the code is NONE or unused.
+     */
+    public static synchronized Class<?> classOf(int code)
+    {
+        if(code <= 0 || code >= classes.size()) {
+            return null;
+        }
+        return classes.get(code);
+    }
+
+    /**
+     * Return one more than the largest code handed out so far.
+     * This is the length an array indexed by species code needs.
+     * @return The number of codes in use, including NONE.
+     */
+    public static synchronized int count()
+    {
+        return classes.size();
+    }
+
+    /**
+     * Allocate the next code for a newly seen class.
+     * @param type The class to register.
+     * @return The new code.
+     */
+    private static synchronized byte register(Class<?> type)
+    {
+        // Two threads may race to compute the same class; only one code is kept.
+        int existing = classes.indexOf(type);
+        if(existing > 0) {
+            return (byte) existing;
+        }
+        if(classes.size() > MAX_CODE) {
+            throw new IllegalStateException("Too many species to encode: " + type.getName());
+        }
+        classes.add(type);
+        return (byte) (classes.size() - 1);
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * The fixed characteristics of one species, such as how long its
+ * members live and how readily they breed. Each species class has a
+ * set of default traits; a Parameters object may replace them so that
+ * simulations can be calibrated without recompiling.
+ *
+ * Traits are immutable. Use with to make a copy with one value changed.
+ * Values that do not apply to a species, such as the drought death
+ * rate of an animal, are simply ignored.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class SpeciesTraits
+{
+    // The names accepted by with and get, in constructor order.
+    public static final String[] NAMES = {
+        "maxAge", "breedingAge", "breedingProbability", "maxOffspring", "trophicLevel",
+        "chanceOfDeathInSnow", "diseaseMutationProbability", "creationProbability",
+        "spawnProbability", "chanceOfDeathInDrought"
+    };
+
+    // The age in steps at which an animal dies
+    private final int maxAge;
+    // The age in steps at which an animal can start breeding
+    private final int breedingAge;
+    // The probability of breeding at any step
+    private final double breedingProbability;
+    // The most births at once
+    private final int maxOffspring;
+    // The position in the food chain
+    private final int trophicLevel;
+    // The chance of dying due to snow at any step
+    private final double chanceOfDeathInSnow;
+    // The probability of a disease first appearing in a member
+    private final double diseaseMutationProbability;
+    // The probability of a member being placed in a location when the field is populated
+    private final double creationProbability;
+    // The probability of a member appearing by itself in an empty location at any step
+    private final double spawnProbability;
+    // The chance of dying due to drought at any step
+    private final double chanceOfDeathInDrought;
+
+    /**
+     * Create the traits of an animal.
+     * @param maxAge The age in steps at which the animal dies
+     * @param breedingAge The age in steps at which the animal can start breeding
+     * @param breedingProbability The probability of breeding at any step
+     * @param maxOffspring The most births the animal can have at once
+     * @param trophicLevel The animal's position in the food chain
+     * @param chanceOfDeathInSnow The chance of dying due to snow at any step
+     * @param diseaseMutationProbability The probability of a disease first appearing
+     * @param creationProbability The probability of the animal being placed in a
+     *                            location when the field is populated
+     */
+    public SpeciesTraits(int maxAge, int breedingAge, double breedingProbability, int maxOffspring,
+                         int trophicLevel, double chanceOfDeathInSnow,
+                         double diseaseMutationProbability, double creationProbability)
+    {
+        this(maxAge, breedingAge, breedingProbability, maxOffspring, trophicLevel,
+             chanceOfDeathInSnow, diseaseMutationProbability, creationProbability, 0, 0);
+    }
+
+    /**
+     * Create the traits of any species.
+     * @param maxAge The age in steps at which a member dies
+     * @param breedingAge The age in steps at which a member can start breeding
+     * @param breedingProbability The probability of breeding at any step
+     * @param maxOffspring The most births at once
+     * @param trophicLevel The position in the food chain
+     * @param chanceOfDeathInSnow The chance of dying due to snow at any step
+     * @param diseaseMutationProbability The probability of a disease first appearing
+     * @param creationProbability The probability of a member being placed in a
+     *                            location when the field is populated
+     * @param spawnProbability The probability of a member appearing by itself in
+     *                         an empty location at any step
+     * @param chanceOfDeathInDrought The chance of dying due to drought at any step
+     */
+    public SpeciesTraits(int maxAge, int breedingAge, double breedingProbability, int maxOffspring,
+                         int trophicLevel, double chanceOfDeathInSnow,
+                         double diseaseMutationProbability, double creationProbability,
+                         double spawnProbability, double chanceOfDeathInDrought)
+    {
+        this.maxAge = maxAge;
+        this.breedingAge = breedingAge;
+        this.breedingProbability = breedingProbability;
+        this.maxOffspring = maxOffspring;
+        this.trophicLevel = trophicLevel;
+        this.chanceOfDeathInSnow = chanceOfDeathInSnow;
+        this.diseaseMutationProbability = diseaseMutationProbability;
+        this.creationProbability = creationProbability;
+        this.spawnProbability = spawnProbability;
+        this.chanceOfDeathInDrought = chanceOfDeathInDrought;
+    }
+
+    /**
+     * Return a copy of these traits with one value changed.
+     * Whole-number traits are rounded to the nearest integer.
+     * @param name The name of the trait, one of NAMES.
+     * @param value The new value.
+     * @return The changed copy.
+     */
+    public SpeciesTraits with(String name, double value)
+    {
+        double[] values = toArray();
+        values[indexOf(name)] = value;
+        return new SpeciesTraits((int) Math.round(values[0]), (int) Math.round(values[1]), values[2],
+                                 (int) Math.round(values[3]), (int) Math.round(values[4]), values[5],
+                                 values[6], values[7], values[8], values[9]);
+    }
+
+    /**
+     * Return a trait by name.
+     * @param name The name of the trait, one of NAMES.
+     * @return Its value.
+     */
+    public double get(String name)
+    {
+        return toArray()[indexOf(name)];
+    }
+
+    /**
+     * @return The age in steps at which a member dies.
+     */
+    public int getMaxAge()
+    {
+        return maxAge;
+    }
+
+    /**
+     * @return The age in steps at which a member can start breeding.
+     */
+    public int getBreedingAge()
+    {
+        return breedingAge;
+    }
+
+    /**
+     * @return The probability of breeding at any step.
+     */
+    public double getBreedingProbability()
+    {
+        return breedingProbability;
+    }
+
+    /**
+     * @return The most births at once.
+     */
+    public int getMaxOffspring()
+    {
+        return maxOffspring;
+    }
+
+    /**
+     * @return The position in the food chain.
+     */
+    public int getTrophicLevel()
+    {
+        return trophicLevel;
+    }
+
+    /**
+     * @return The chance of dying due to snow at any step.
+     */
+    public double getChanceOfDeathInSnow()
+    {
+        return chanceOfDeathInSnow;
+    }
+
+    /**
+     * @return The probability of a disease first appearing in a member.
+     */
+    public double getDiseaseMutationProbability()
+    {
+        return diseaseMutationProbability;
+    }
+
+    /**
+     * @return The probability of a member being placed in a location
+     *         when the field is populated.
+     */
+    public double getCreationProbability()
+    {
+        return creationProbability;
+    }
+
+    /**
+     * @return The probability of a member appearing by itself in an
+     *         empty location at any step.
+     */
+    public double getSpawnProbability()
+    {
+        return spawnProbability;
+    }
+
+    /**
+     * @return The chance of dying due to drought at any step.
+     */
+    public double getChanceOfDeathInDrought()
+    {
+        return chanceOfDeathInDrought;
+    }
+
+    /**
+     * @return Every trait, in the order of NAMES.
+     */
+    private double[] toArray()
+    {
+        return new double[] {maxAge, breedingAge, breedingProbability, maxOffspring, trophicLevel,
+                             chanceOfDeathInSnow, diseaseMutationProbability, creationProbability,
+                             spawnProbability, chanceOfDeathInDrought};
+    }
+
+    /**
+     * Find the position of a trait in NAMES.
+     */
+    private static int indexOf(String name)
+    {
+        for(int i = 0; i < NAMES.length; i++) {
+            if(NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown trait: " + name);
+    }
+}
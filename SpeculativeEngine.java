@@ -0,0 +1,329 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A step engine that lets organisms act in parallel without phases,
+ * relying on conflicts between them being rare.
+ *
+ * Worker threads take organisms from the simulator's list in chunks.
+ * Before an organism acts, its thread claims the block of cells around
+ * it with compare-and-set. An organism only ever reads or changes the
+ * cells next to it, so holding the block means no other thread can
+ * touch anything the organism touches: its moves, births, kills and
+ * infections all land in claimed cells. If any cell of the block is
+ * already claimed the thread releases what it took and tries again a
+ * few times. An organism that still cannot be claimed is deferred and
+ * acts on the simulator's thread once the parallel pass is over.
+ *
+ * This suits sparse populations, where neighbouring organisms rarely
+ * act at the same moment. Crowded fields produce many conflicts; the
+ * conflict and deferral counts show which engine fits a workload.
+ *
+ * Which of two neighbouring organisms acts first depends on how the
+ * threads are scheduled, so unlike the other engines its runs are not
+ * repeatable from a seed.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class SpeculativeEngine implements StepEngine
+{
+    // How many organisms one task works through.
+    private static final int CHUNK = 512;
+    // How many times to try claiming a block before deferring.
+    private static final int MAX_ATTEMPTS = 4;
+    // Atomic access to the elements of the claims array.
+    private static final VarHandle CLAIM = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // The pool the organisms act on.
+    private final ForkJoinPool pool;
+    // The token of the chunk holding each cell, or 0 if the cell is free.
+    private int[] claims;
+    // Per-chunk lists of newborns and of organisms left for later, reused between steps.
+    private final List<List<Organism>> born;
+    private final List<List<Organism>> postponed;
+    // Counts of claim attempts, failed attempts and deferred organisms.
+    private final LongAdder attempts;
+    private final LongAdder conflicts;
+    private final LongAdder deferred;
+
+    /**
+     * Create an engine that runs on the common fork/join pool.
+     */
+    public SpeculativeEngine()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create an engine with its own pool of the given size.
+     * @param parallelism The number of threads to act on.
+     */
+    public SpeculativeEngine(int parallelism)
+    {
+        this(new ForkJoinPool(parallelism));
+    }
+
+    /**
+     * Create an engine.
+     * @param pool The pool the organisms act on.
+     */
+    public SpeculativeEngine(ForkJoinPool pool)
+    {
+        this.pool = pool;
+        born = new ArrayList<>();
+        postponed = new ArrayList<>();
+        attempts = new LongAdder();
+        conflicts = new LongAdder();
+        deferred = new LongAdder();
+    }
+
+    /**
+     * Let every live organism act once.
+     * @param organisms The organisms in the simulation.
+     * @param newOrganisms A list to receive newly born organisms.
+     * @param field The field the organisms live in.
+     * @param weather The weather during this step.
+     * @param isDayTime True if this step is during the day.
+     */
+    public void actAll(List<Organism> organisms, List<Organism> newOrganisms, Field field,
+                       Weather weather, boolean isDayTime)
+    {
+        if(claims == null || claims.length != field.getSize()) {
+            claims = new int[field.getSize()];
+        }
+
+        int chunks = (organisms.size() + CHUNK - 1) / CHUNK;
+        while(born.size() < chunks) {
+            born.add(new ArrayList<>());
+            postponed.add(new ArrayList<>());
+        }
+        for(int chunk = 0; chunk < chunks; chunk++) {
+            born.get(chunk).clear();
+            postponed.get(chunk).clear();
+        }
+        field.setShared(true);
+        try {
+            pool.invoke(new ActTask(organisms, 0, chunks, born, postponed, field, weather, isDayTime));
+        }
+        finally {
+            field.setShared(false);
+        }
+
+        // Organisms that lost every race act alone, in order.
+        StepMetrics metrics = field.getMetrics();
+        for(int chunk = 0; chunk < chunks; chunk++) {
+            List<Organism> newborn = born.get(chunk);
+            for(Organism organism : postponed.get(chunk)) {
+                if(organism.isAlive()) {
+                    metrics.act(organism, newborn, weather, isDayTime);
+                }
+            }
+            newOrganisms.addAll(newborn);
+        }
+    }
+
+    /**
+     * @return The fraction of claim attempts that found a cell already claimed.
+     */
+    public double getConflictRate()
+    {
+        long tried = attempts.sum();
+        return tried == 0 ? 0 : (double) conflicts.sum() / tried;
+    }
+
+    /**
+     * @return The number of claim attempts made since the last reset.
+     */
+    public long getAttempts()
+    {
+        return attempts.sum();
+    }
+
+    /**
+     * @return The number of claim attempts that failed since the last reset.
+     */
+    public long getConflicts()
+    {
+        return conflicts.sum();
+    }
+
+    /**
+     * @return The number of organisms that had to act on the simulator's
+     *         thread since the last reset.
+     */
+    public long getDeferred()
+    {
+        return deferred.sum();
+    }
+
+    /**
+     * Describe the conflict and retry rates seen so far.
+     * @return A one-line summary.
+     */
+    public String getReport()
+    {
+        return String.format("attempts: %d conflicts: %d (%.2f%%) deferred: %d",
+                             getAttempts(), getConflicts(), getConflictRate() * 100, getDeferred());
+    }
+
+    /**
+     * Set the conflict and retry counts back to zero.
+     */
+    public void resetCounts()
+    {
+        attempts.reset();
+        conflicts.reset();
+        deferred.reset();
+    }
+
+    /**
+     * Try to claim every cell within one step of the given cell.
+     * Either the whole block is claimed or nothing is.
+     * @param field The field.
+     * @param cell The centre of the block.
+     * @param token The claiming chunk's token, never 0.
+     * @return true if the block was claimed.
+     */
+    private boolean claimBlock(Field field, int cell, int token)
+    {
+        int row = field.rowOf(cell);
+        int col = field.colOf(cell);
+        int top = Math.max(row - 1, 0), bottom = Math.min(row + 1, field.getDepth() - 1);
+        int left = Math.max(col - 1, 0), right = Math.min(col + 1, field.getWidth() - 1);
+        for(int r = top; r <= bottom; r++) {
+            for(int c = left; c <= right; c++) {
+                if(!CLAIM.compareAndSet(claims, field.indexOf(r, c), 0, token)) {
+                    releaseBlock(field, cell, token);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Release the cells of a block that the given token holds.
+     * @param field The field.
+     * @param cell The centre of the block.
+     * @param token The token whose claims to release.
+     */
+    private void releaseBlock(Field field, int cell, int token)
+    {
+        int row = field.rowOf(cell);
+        int col = field.colOf(cell);
+        int top = Math.max(row - 1, 0), bottom = Math.min(row + 1, field.getDepth() - 1);
+        int left = Math.max(col - 1, 0), right = Math.min(col + 1, field.getWidth() - 1);
+        for(int r = top; r <= bottom; r++) {
+            for(int c = left; c <= right; c++) {
+                // Only our own claims are released; compareAndSet leaves others alone.
+                CLAIM.compareAndSet(claims, field.indexOf(r, c), token, 0);
+            }
+        }
+    }
+
+    /**
+     * Let the organisms in a range of chunks act, splitting the range
+     * between threads. Tasks are never serialized, so they declare no
+     * serialVersionUID.
+     */
+    @SuppressWarnings("serial")
+    private class ActTask extends RecursiveAction
+    {
+        private final List<Organism> organisms;
+        // The first chunk and one past the last chunk to act.
+        private final int from, to;
+        // Per-chunk lists of newborns and of organisms left for later.
+        private final List<List<Organism>> born, postponed;
+        private final Field field;
+        private final Weather weather;
+        private final boolean isDayTime;
+
+        /**
+         * Act the organisms in chunks from to to.
+         */
+        ActTask(List<Organism> organisms, int from, int to,
+                List<List<Organism>> born, List<List<Organism>> postponed,
+                Field field, Weather weather, boolean isDayTime)
+        {
+            this.organisms = organisms;
+            this.from = from;
+            this.to = to;
+            this.born = born;
+            this.postponed = postponed;
+            this.field = field;
+            this.weather = weather;
+            this.isDayTime = isDayTime;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if(to - from <= 1) {
+                for(int chunk = from; chunk < to; chunk++) {
+                    actChunk(chunk);
+                }
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ActTask(organisms, from, middle, born, postponed, field, weather, isDayTime),
+                          new ActTask(organisms, middle, to, born, postponed, field, weather, isDayTime));
+            }
+        }
+
+        /**
+         * Act each organism in one chunk under a claim on its block.
+         */
+        private void actChunk(int chunk)
+        {
+            int token = chunk + 1;
+            List<Organism> newborn = born.get(chunk);
+            int end = Math.min(organisms.size(), (chunk + 1) * CHUNK);
+            for(int i = chunk * CHUNK; i < end; i++) {
+                Organism organism = organisms.get(i);
+                if(!actClaimed(organism, token, newborn)) {
+                    deferred.increment();
+                    postponed.get(chunk).add(organism);
+                }
+            }
+        }
+
+        /**
+         * Claim the organism's block and let it act.
+         * @return false if the block could not be claimed.
+         */
+        private boolean actClaimed(Organism organism, int token, List<Organism> newborn)
+        {
+            for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                int cell = organism.getCell();
+                if(cell < 0 || !organism.isAlive()) {
+                    // Killed before its turn.
+                    return true;
+                }
+                attempts.increment();
+                if(claimBlock(field, cell, token)) {
+                    try {
+                        // It may have been moved or killed while we were claiming.
+                        if(organism.getCell() == cell && organism.isAlive()) {
+                            field.getMetrics().act(organism, newborn, weather, isDayTime);
+                            return true;
+                        }
+                    }
+                    finally {
+                        releaseBlock(field, cell, token);
+                    }
+                }
+                else {
+                    conflicts.increment();
+                    Thread.onSpinWait();
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+import java.util.List;
+
+/**
+ * A strategy for letting every organism in the simulation act once
+ * during a step. The simulator owns the organisms and the field; an
+ * engine decides in what order, and on which threads, they act.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public interface StepEngine
+{
+    /**
+     * Let every live organism act once. Dead organisms are skipped and
+     * left in the list for the simulator to remove.
+     * @param organisms The organisms in the simulation.
+     * @param newOrganisms A list to receive newly born organisms.
+     * @param field The field the organisms live in.
+     * @param weather The weather during this step.
+     * @param isDayTime True if this step is during the day.
+     */
+    void actAll(List<Organism> organisms, List<Organism> newOrganisms, Field field,
+                Weather weather, boolean isDayTime);
+}
@@ -0,0 +1,57 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for one step of the simulation, giving
+ * how long the step and each of its phases took. Events are only
+ * created once StepMetrics.setFlightEvents has turned them on, and
+ * only written while a flight recording is running.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+@Name("ppa.Step")
+@Label("Simulation Step")
+@Category("Simulation")
+@Description("One step of the predator-prey simulation")
+@StackTrace(false)
+public class StepEvent extends Event
+{
+    // The step that was taken.
+    @Label("Step")
+    int step;
+
+    // The number of organisms alive at the end of the step.
+    @Label("Organisms")
+    int organisms;
+
+    // The time taken by each phase of the step, in the order of StepMetrics.Phase.
+    @Label("Lifecycle")
+    @Timespan(Timespan.NANOSECONDS)
+    long lifecycle;
+
+    @Label("Act")
+    @Timespan(Timespan.NANOSECONDS)
+    long act;
+
+    @Label("Remove Dead")
+    @Timespan(Timespan.NANOSECONDS)
+    long removeDead;
+
+    @Label("Spawn")
+    @Timespan(Timespan.NANOSECONDS)
+    long spawn;
+
+    @Label("Add Newborns")
+    @Timespan(Timespan.NANOSECONDS)
+    long addNewborns;
+
+    @Label("Observers")
+    @Timespan(Timespan.NANOSECONDS)
+    long observers;
+}
@@ -0,0 +1,377 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Times every step of a simulation and each phase within it, and
+ * publishes the timings with the field's population counters over JMX
+ * so that a slow run can be watched live in JConsole or Java Mission
+ * Control. Once flight events are turned on, each step is also written
+ * as a StepEvent while a flight recording is running.
+ *
+ * Step and phase times go into LatencyHistograms, so percentiles such
+ * as the 99th can be read at any time. Timing a phase reads the clock
+ * once. Timing every organism's act would cost more than most acts
+ * do, so only organisms in one cell in SAMPLE_INTERVAL are timed, which
+ * is enough to compare the species.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class StepMetrics implements StepMetricsMXBean
+{
+    /**
+     * The phases of a step, in the order they happen.
+     */
+    public enum Phase
+    {
+        // Advancing the animals' lifecycle clock and timing wheel, and
+        // gathering the night's actors at dusk.
+        LIFECYCLE,
+        // Every organism acting.
+        ACT,
+        // Dropping the organisms that died.
+        REMOVE_DEAD,
+        // Spawning plants in empty cells.
+        SPAWN,
+        // Adding the organisms born during the step.
+        ADD_NEWBORNS,
+        // Telling observers such as the view about the step.
+        OBSERVERS,
+        // Counting the species to see if the run is still viable, between steps.
+        STATS
+    }
+
+    // The phases, cached because values() copies the array.
+    private static final Phase[] PHASES = Phase.values();
+    // Organisms are timed when their cell is a multiple of this power of two.
+    private static final int SAMPLE_INTERVAL = 64;
+    // The number of recent steps the steps a second are measured over.
+    private static final int RATE_WINDOW = 64;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    // The field whose counters are published.
+    private final Field field;
+    // The time taken by whole steps and by each phase.
+    private final LatencyHistogram steps;
+    private final LatencyHistogram[] phases;
+    // The time taken in the current step by each phase, for its StepEvent.
+    private final long[] phaseNanos;
+    // The total time and number of the sampled acts, by species code.
+    // Organisms may act on several threads, so each is a LongAdder.
+    private final LongAdder[] actNanos;
+    private final LongAdder[] acts;
+    // When each of the last RATE_WINDOW steps ended, as a ring.
+    private final long[] stepEnds;
+    private volatile int stepsEnded;
+    // Whether each step is written as a StepEvent.
+    private volatile boolean flightEvents;
+    // The flight recorder event for the current step, or null if there is none.
+    private StepEvent event;
+    // The name the metrics are published under, or null if they are not.
+    private ObjectName name;
+
+    /**
+     * Create metrics for the simulation in a field.
+     * @param field The field.
+     */
+    public StepMetrics(Field field)
+    {
+        this.field = field;
+        steps = new LatencyHistogram();
+        phases = new LatencyHistogram[PHASES.length];
+        for(int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+        phaseNanos = new long[PHASES.length];
+        actNanos = new LongAdder[Species.MAX_CODE + 1];
+        acts = new LongAdder[Species.MAX_CODE + 1];
+        for(int code = 0; code < acts.length; code++) {
+            actNanos[code] = new LongAdder();
+            acts[code] = new LongAdder();
+        }
+        stepEnds = new long[RATE_WINDOW];
+    }
+
+    /**
+     * Publish the metrics on the platform MBean server, where JMX
+     * clients can find them as ppa:type=StepMetrics,name=the name.
+     * @param simulationName A name telling this simulation apart from
+     *                       others in the same JVM.
+     * @throws IllegalStateException If the metrics cannot be published,
+     *         such as when the name is already in use.
+     */
+    public synchronized void publish(String simulationName)
+    {
+        unpublish();
+        try {
+            ObjectName objectName = new ObjectName("ppa:type=StepMetrics,name="
+                                                   + ObjectName.quote(simulationName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            name = objectName;
+        }
+        catch(JMException e) {
+            throw new IllegalStateException("Cannot publish the step metrics as " + simulationName, e);
+        }
+    }
+
+    /**
+     * Stop publishing the metrics, if they are published.
+     */
+    public synchronized void unpublish()
+    {
+        if(name == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if(server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+        catch(JMException e) {
+            // It has gone already.
+        }
+        name = null;
+    }
+
+    /**
+     * Note that a step is starting.
+     * @return The time now, to pass to the first endPhase.
+     */
+    public long startStep()
+    {
+        if(flightEvents) {
+            event = new StepEvent();
+            event.begin();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Note that a phase of the step has ended.
+     * @param phase The phase.
+     * @param since The time the phase started, as returned by
+     *              startStep or the previous endPhase.
+     * @return The time now, when the next phase starts.
+     */
+    public long endPhase(Phase phase, long since)
+    {
+        long now = System.nanoTime();
+        phases[phase.ordinal()].record(now - since);
+        phaseNanos[phase.ordinal()] = now - since;
+        return now;
+    }
+
+    /**
+     * Note that a step has ended.
+     * @param step The step.
+     * @param organisms The number of organisms alive at the end of it.
+     * @param since The time the step started, as returned by startStep.
+     */
+    public void endStep(int step, int organisms, long since)
+    {
+        long now = System.nanoTime();
+        steps.record(now - since);
+        stepEnds[stepsEnded % RATE_WINDOW] = now;
+        stepsEnded++;
+
+        if(event == null) {
+            return;
+        }
+        event.end();
+        if(event.shouldCommit()) {
+            event.step = step;
+            event.organisms = organisms;
+            event.lifecycle = phaseNanos[Phase.LIFECYCLE.ordinal()];
+            event.act = phaseNanos[Phase.ACT.ordinal()];
+            event.removeDead = phaseNanos[Phase.REMOVE_DEAD.ordinal()];
+            event.spawn = phaseNanos[Phase.SPAWN.ordinal()];
+            event.addNewborns = phaseNanos[Phase.ADD_NEWBORNS.ordinal()];
+            event.observers = phaseNanos[Phase.OBSERVERS.ordinal()];
+            event.commit();
+        }
+        event = null;
+    }
+
+    /**
+     * Record the time taken by a phase outside a step.
+     * @param phase The phase.
+     * @param nanos The time it took, in nanoseconds.
+     */
+    public void record(Phase phase, long nanos)
+    {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Make an organism act, timing it if it is one of those sampled.
+     * Step engines call this in place of Organism.act. It may be called
+     * on several threads at once.
+     * @param organism The organism.
+     * @param newOrganisms A list to receive newly born organisms.
+     * @param weather The current weather.
+     * @param isDayTime True if it is currently day time.
+     */
+    public void act(Organism organism, List<Organism> newOrganisms, Weather weather, boolean isDayTime)
+    {
+        if((organism.getCell() & (SAMPLE_INTERVAL - 1)) != 0) {
+            organism.act(newOrganisms, weather, isDayTime);
+            return;
+        }
+        long start = System.nanoTime();
+        organism.act(newOrganisms, weather, isDayTime);
+        int code = organism.getSpeciesCode();
+        actNanos[code].add(System.nanoTime() - start);
+        acts[code].increment();
+    }
+
+    @Override
+    public long getStepCount()
+    {
+        return steps.getCount();
+    }
+
+    @Override
+    public double getStepsPerSecond()
+    {
+        int ended = stepsEnded;
+        int window = Math.min(ended, RATE_WINDOW) - 1;
+        if(window < 1) {
+            return 0;
+        }
+        long newest = stepEnds[(ended - 1) % RATE_WINDOW];
+        long oldest = stepEnds[(ended - 1 - window) % RATE_WINDOW];
+        return newest == oldest ? 0 : window * 1e9 / (newest - oldest);
+    }
+
+    @Override
+    public double getMeanStepMillis()
+    {
+        return steps.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMedianStepMillis()
+    {
+        return steps.getPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99StepMillis()
+    {
+        return steps.getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxStepMillis()
+    {
+        return steps.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public Map<String, Double> getMeanPhaseMillis()
+    {
+        Map<String, Double> means = new LinkedHashMap<>();
+        for(Phase phase : PHASES) {
+            means.put(phase.name(), phases[phase.ordinal()].getMean() / NANOS_PER_MILLI);
+        }
+        return means;
+    }
+
+    @Override
+    public Map<String, Double> getP99PhaseMillis()
+    {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for(Phase phase : PHASES) {
+            percentiles.put(phase.name(), phases[phase.ordinal()].getPercentile(99) / NANOS_PER_MILLI);
+        }
+        return percentiles;
+    }
+
+    @Override
+    public Map<String, Double> getMeanActNanos()
+    {
+        Map<String, Double> means = new LinkedHashMap<>();
+        for(int code = 1; code < Species.count(); code++) {
+            long count = acts[code].sum();
+            means.put(Species.classOf(code).getName(), count == 0 ? 0 : (double) actNanos[code].sum() / count);
+        }
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getPopulations()
+    {
+        int[] populations = field.getPopulations();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for(int code = 1; code < populations.length; code++) {
+            counts.put(Species.classOf(code).getName(), (long) populations[code]);
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getBirths()
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for(int code = 1; code < Species.count(); code++) {
+            counts.put(Species.classOf(code).getName(), field.getBirths(code));
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getDeaths()
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for(int code = 1; code < Species.count(); code++) {
+            long deaths = 0;
+            for(DeathCause cause : DeathCause.values()) {
+                deaths += field.getDeaths(code, cause);
+            }
+            counts.put(Species.classOf(code).getName(), deaths);
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getInfections()
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for(int code = 1; code < Species.count(); code++) {
+            counts.put(Species.classOf(code).getName(), field.getInfections(code));
+        }
+        return counts;
+    }
+
+    @Override
+    public boolean isFlightEvents()
+    {
+        return flightEvents;
+    }
+
+    @Override
+    public void setFlightEvents(boolean flightEvents)
+    {
+        this.flightEvents = flightEvents;
+    }
+
+    @Override
+    public void reset()
+    {
+        steps.reset();
+        for(LatencyHistogram phase : phases) {
+            phase.reset();
+        }
+        for(int code = 0; code < acts.length; code++) {
+            actNanos[code].reset();
+            acts[code].reset();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.Map;
+
+/**
+ * The management interface of StepMetrics, shown by JConsole, Java
+ * Mission Control and any other JMX client. Durations are in
+ * milliseconds, except the cost of an act, which is in nanoseconds.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public interface StepMetricsMXBean
+{
+    /**
+     * @return The number of steps timed since the metrics were reset.
+     */
+    long getStepCount();
+
+    /**
+     * @return The number of steps a second over the last few steps.
+     */
+    double getStepsPerSecond();
+
+    /**
+     * @return The mean time taken by a step.
+     */
+    double getMeanStepMillis();
+
+    /**
+     * @return The median time taken by a step.
+     */
+    double getMedianStepMillis();
+
+    /**
+     * @return The time within which 99% of steps finished.
+     */
+    double getP99StepMillis();
+
+    /**
+     * @return The longest time taken by a step.
+     */
+    double getMaxStepMillis();
+
+    /**
+     * @return The mean time taken by each phase of a step, by phase name.
+     */
+    Map<String, Double> getMeanPhaseMillis();
+
+    /**
+     * @return The time within which 99% of each phase finished, by phase name.
+     */
+    Map<String, Double> getP99PhaseMillis();
+
+    /**
+     * @return The mean time a single organism of each species takes
+     *         to act, in nanoseconds, by species name.
+     */
+    Map<String, Double> getMeanActNanos();
+
+    /**
+     * @return The number of live organisms of each species, by species name.
+     */
+    Map<String, Long> getPopulations();
+
+    /**
+     * @return The number of organisms of each species born since the
+     *         field was cleared, by species name.
+     */
+    Map<String, Long> getBirths();
+
+    /**
+     * @return The number of organisms of each species that died since
+     *         the field was cleared, by species name.
+     */
+    Map<String, Long> getDeaths();
+
+    /**
+     * @return The number of infections caught by organisms of each
+     *         species since the field was cleared, by species name.
+     */
+    Map<String, Long> getInfections();
+
+    /**
+     * @return True if each step is written as a StepEvent to any
+     *         running flight recording.
+     */
+    boolean isFlightEvents();
+
+    /**
+     * Turn StepEvents on or off. They are off by default, since merely
+     * loading a flight recorder event slows the simulation noticeably
+     * even when nothing is recording.
+     * @param flightEvents True to write StepEvents.
+     */
+    void setFlightEvents(boolean flightEvents);
+
+    /**
+     * Forget every timing recorded so far.
+     */
+    void reset();
+}
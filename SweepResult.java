@@ -0,0 +1,110 @@
+/**
+ * The outcome of one simulation run in a parameter sweep: the values
+ * the run was given, how far it got and why it stopped.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class SweepResult
+{
+    /**
+     * Why a run stopped.
+     */
+    public enum Outcome
+    {
+        // The run took every step it was allowed.
+        COMPLETED,
+        // Fewer than two species were left.
+        NOT_VIABLE,
+        // The watched species died out.
+        EXTINCT
+    }
+
+    // The names of the swept values and the values this run was given.
+    private final String[] names;
+    private final double[] values;
+    // The number of steps the run took.
+    private final int steps;
+    // Why the run stopped.
+    private final Outcome outcome;
+    // The count of each species when the run stopped, by species code.
+    private final int[] finalCounts;
+
+    /**
+     * Record the outcome of a run.
+     * @param names The names of the swept values.
+     * @param values The values this run was given, in the same order.
+     * @param steps The number of steps the run took.
+     * @param outcome Why the run stopped.
+     * @param finalCounts The count of each species when it stopped, by species code.
+     */
+    public SweepResult(String[] names, double[] values, int steps, Outcome outcome, int[] finalCounts)
+    {
+        this.names = names;
+        this.values = values;
+        this.steps = steps;
+        this.outcome = outcome;
+        this.finalCounts = finalCounts;
+    }
+
+    /**
+     * Return the value this run was given for a swept parameter.
+     * @param name The parameter's name, such as "Tiger.maxAge".
+     * @return The value used.
+     */
+    public double getValue(String name)
+    {
+        for(int i = 0; i < names.length; i++) {
+            if(names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        throw new IllegalArgumentException(name + " was not swept");
+    }
+
+    /**
+     * @return The number of steps the run took.
+     */
+    public int getSteps()
+    {
+        return steps;
+    }
+
+    /**
+     * @return Why the run stopped.
+     */
+    public Outcome getOutcome()
+    {
+        return outcome;
+    }
+
+    /**
+     * Return the population of a species when the run stopped.
+     * @param species The class of organism.
+     * @return Its count.
+     */
+    public int getFinalCount(Class<?> species)
+    {
+        int code = Species.codeOf(species);
+        return code < finalCounts.length ? finalCounts[code] : 0;
+    }
+
+    /**
+     * @return The swept values, the steps taken and the outcome.
+     */
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < names.length; i++) {
+            builder.append(names[i]);
+            builder.append('=');
+            builder.append(values[i]);
+            builder.append(' ');
+        }
+        builder.append("steps=");
+        builder.append(steps);
+        builder.append(' ');
+        builder.append(outcome);
+        return builder.toString();
+    }
+}
@@ -8,6 +8,9 @@ public class Tiger extends Animal
 {
     // Probability of tiger spawning in location upon simulation creation
     public static final double creationProbability = 0.02;
+    // The traits a tiger has unless the simulation's parameters say otherwise
+    public static final SpeciesTraits DEFAULT_TRAITS =
+        new SpeciesTraits(900, 26, 0.35, 5, 4, 0.1, 0.001, creationProbability);
 
 
     /**
@@ -20,7 +23,7 @@ public class Tiger extends Animal
      */
     public Tiger(boolean randomAge, Field field, Location location)
     {
-        super(false, field, location, 900, 26,0.35, 5, 4, 0.1, 0.001);
+        super(false, field, location, field.getParameters().traitsOf(Tiger.class));
     }
 
     /**
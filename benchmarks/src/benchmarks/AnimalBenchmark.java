@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of a single animal acting during the day, for each
+ * species. Every iteration starts from a newly populated field, and
+ * each call makes the next live animal of the species act, taking
+ * turns among them. Animals born during the iteration are left in the
+ * field but do not act.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimalBenchmark
+{
+    // The seed every iteration starts from.
+    private static final long SEED = 42;
+
+    // The species whose animals act.
+    @Param({"Beaver", "Jackal", "Bear", "Deer", "Tiger"})
+    public String species;
+
+    // The animals of the species in the new field.
+    private List<Object> animals;
+    // Receives the animals born.
+    private List<Object> newborns;
+    // The weather the animals act in.
+    private Object weather;
+    // The index of the next animal to act.
+    private int next;
+
+    /**
+     * Populate a new field and find the animals of the species.
+     */
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        Object field = Simulation.getField(Simulation.newSimulator(100, 200, SEED));
+        Class<?> speciesClass = Simulation.simulationClass(species);
+        animals = new ArrayList<>();
+        for(int cell = 0; cell < Simulation.getSize(field); cell++) {
+            Object organism = Simulation.getObjectAt(field, cell);
+            if(speciesClass.isInstance(organism)) {
+                animals.add(organism);
+            }
+        }
+        newborns = new ArrayList<>();
+        weather = Simulation.weather("CLEAR_SKY");
+        next = 0;
+    }
+
+    /**
+     * Make the next live animal act.
+     * @return The number of animals it gave birth to.
+     */
+    @Benchmark
+    public int act()
+    {
+        for(int tried = 0; tried < animals.size(); tried++) {
+            Object animal = animals.get(next);
+            next = next + 1 == animals.size() ? 0 : next + 1;
+            if(Simulation.isAlive(animal)) {
+                newborns.clear();
+                Simulation.act(animal, newborns, weather, true);
+                return newborns.size();
+            }
+        }
+        return 0;
+    }
+}
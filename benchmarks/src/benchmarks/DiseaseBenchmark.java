@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of an organism passing its diseases to its neighbours, on
+ * a newly populated field where every organism carries every disease.
+ * Each call makes the next organism spread its diseases, taking turns
+ * among all of them.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiseaseBenchmark
+{
+    // The seed every run starts from.
+    private static final long SEED = 42;
+
+    // The organisms in the field.
+    private List<Object> organisms;
+    // The index of the next organism to spread its diseases.
+    private int next;
+
+    /**
+     * Populate a field and give every organism every disease.
+     */
+    @Setup
+    public void setUp()
+    {
+        Object field = Simulation.getField(Simulation.newSimulator(100, 200, SEED));
+        Object[] diseases = Simulation.getDiseases(field);
+        organisms = new ArrayList<>();
+        for(int cell = 0; cell < Simulation.getSize(field); cell++) {
+            Object organism = Simulation.getObjectAt(field, cell);
+            if(organism != null) {
+                for(Object disease : diseases) {
+                    Simulation.giveDisease(organism, disease);
+                }
+                organisms.add(organism);
+            }
+        }
+    }
+
+    /**
+     * Make the next organism spread its diseases.
+     */
+    @Benchmark
+    public void spreadDiseases()
+    {
+        Object organism = organisms.get(next);
+        next = next + 1 == organisms.size() ? 0 : next + 1;
+        Simulation.spreadDiseases(organism);
+    }
+}
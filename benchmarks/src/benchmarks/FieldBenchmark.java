@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the field's neighbourhood searches, on a field
+ * populated as a new simulation is. Each call asks about the next of a
+ * fixed set of locations spread over the field.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark
+{
+    // The seed every run starts from.
+    private static final long SEED = 42;
+    // The number of locations asked about, a power of two.
+    private static final int LOCATIONS = 1024;
+
+    // The populated field.
+    private Object field;
+    // The locations asked about.
+    private Object[] locations;
+    // The index of the next location to ask about.
+    private int next;
+
+    /**
+     * Populate a field and choose the locations to ask about.
+     */
+    @Setup
+    public void setUp()
+    {
+        field = Simulation.getField(Simulation.newSimulator(100, 200, SEED));
+        Random rand = new Random(SEED);
+        locations = new Object[LOCATIONS];
+        for(int i = 0; i < LOCATIONS; i++) {
+            locations[i] = Simulation.locationOf(field, rand.nextInt(Simulation.getSize(field)));
+        }
+    }
+
+    /**
+     * @return The locations adjacent to the next location.
+     */
+    @Benchmark
+    public Object adjacentLocations()
+    {
+        return Simulation.adjacentLocations(field, nextLocation());
+    }
+
+    /**
+     * @return The free locations adjacent to the next location.
+     */
+    @Benchmark
+    public Object getFreeAdjacentLocations()
+    {
+        return Simulation.getFreeAdjacentLocations(field, nextLocation());
+    }
+
+    /**
+     * @return A free cell adjacent to the next location, found without allocating.
+     */
+    @Benchmark
+    public int freeAdjacentCell()
+    {
+        return Simulation.freeAdjacentCell(field, Simulation.cellOf(field, nextLocation()));
+    }
+
+    /**
+     * @return The next location to ask about.
+     */
+    private Object nextLocation()
+    {
+        next = (next + 1) & (LOCATIONS - 1);
+        return locations[next];
+    }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of counting the population of each species, as the
+ * simulator does after every step to decide whether the run is still
+ * viable, and as the view does from the field's bitplanes for each
+ * frame.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldStatsBenchmark
+{
+    // The seed every run starts from.
+    private static final long SEED = 42;
+
+    // The populated field.
+    private Object field;
+    // The statistics being counted.
+    private Object stats;
+
+    /**
+     * Populate a field.
+     */
+    @Setup
+    public void setUp()
+    {
+        field = Simulation.getField(Simulation.newSimulator(100, 200, SEED));
+        stats = Simulation.newFieldStats();
+    }
+
+    /**
+     * Count every species again and check whether more than one is alive.
+     * @return Whether the simulation is viable.
+     */
+    @Benchmark
+    public boolean generateCounts()
+    {
+        Simulation.resetStats(stats);
+        return Simulation.isViable(stats, field);
+    }
+
+    /**
+     * Count the cells of every species from the field's bitplanes.
+     * @return The count of each species.
+     */
+    @Benchmark
+    public int[] countSpecies()
+    {
+        return Simulation.countSpecies(field);
+    }
+}
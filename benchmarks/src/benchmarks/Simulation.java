@@ -0,0 +1,393 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Calls into the simulation from the benchmarks.
+ *
+ * The simulation's classes are in the default package, which JMH does
+ * not allow benchmarks in and which classes in any other package
+ * cannot name. The benchmarks therefore reach the simulation through
+ * method handles looked up once by name and held in constants. The JIT
+ * compiler inlines calls through constant method handles, so they cost
+ * the same as direct calls. Simulation objects are passed around as
+ * Object.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+final class Simulation
+{
+    // Simulator(int depth, int width, long seed)
+    private static final MethodHandle NEW_SIMULATOR =
+        constructor("Simulator", int.class, int.class, long.class);
+    private static final MethodHandle SIMULATE_ONE_STEP = method("Simulator", "simulateOneStep");
+    private static final MethodHandle RESET = method("Simulator", "reset");
+    private static final MethodHandle GET_FIELD = method("Simulator", "getField");
+    private static final MethodHandle GET_STEP = method("Simulator", "getStep");
+
+    private static final MethodHandle GET_SIZE = method("Field", "getSize");
+    private static final MethodHandle LOCATION_OF = method("Field", "locationOf", int.class);
+    private static final MethodHandle CELL_OF = method("Field", "indexOf", int.class, int.class);
+    private static final MethodHandle GET_ROW = method("Location", "getRow");
+    private static final MethodHandle GET_COL = method("Location", "getCol");
+    private static final MethodHandle GET_OBJECT_AT = method("Field", "getObjectAt", int.class);
+    private static final MethodHandle COUNT_SPECIES = method("Field", "countSpecies");
+    private static final MethodHandle ADJACENT_LOCATIONS = method("Field", "adjacentLocations", "Location");
+    private static final MethodHandle FREE_ADJACENT_LOCATIONS =
+        method("Field", "getFreeAdjacentLocations", "Location");
+    private static final MethodHandle FREE_ADJACENT_CELL = method("Field", "freeAdjacentCell", int.class);
+    private static final MethodHandle GET_PARAMETERS = method("Field", "getParameters");
+
+    private static final MethodHandle GET_DISEASE_COUNT = method("Parameters", "getDiseaseCount");
+    private static final MethodHandle GET_DISEASE = method("Parameters", "getDisease", int.class);
+
+    private static final MethodHandle IS_ALIVE = method("Organism", "isAlive");
+    private static final MethodHandle GIVE_DISEASE = method("Organism", "giveDisease", "Disease");
+    private static final MethodHandle SPREAD_DISEASES = method("Organism", "spreadDiseases");
+    private static final MethodHandle ACT = method("Organism", "act", List.class, "Weather", boolean.class);
+
+    private static final MethodHandle NEW_FIELD_STATS = constructor("FieldStats");
+    private static final MethodHandle RESET_STATS = method("FieldStats", "reset");
+    private static final MethodHandle IS_VIABLE = method("FieldStats", "isViable", "Field");
+
+    /**
+     * No instances; the class only holds the handles.
+     */
+    private Simulation()
+    {
+    }
+
+    /**
+     * @return A new simulator with no window.
+     */
+    static Object newSimulator(int depth, int width, long seed)
+    {
+        try {
+            return (Object) NEW_SIMULATOR.invokeExact(depth, width, seed);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void simulateOneStep(Object simulator)
+    {
+        try {
+            SIMULATE_ONE_STEP.invokeExact(simulator);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void reset(Object simulator)
+    {
+        try {
+            RESET.invokeExact(simulator);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object getField(Object simulator)
+    {
+        try {
+            return (Object) GET_FIELD.invokeExact(simulator);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static int getStep(Object simulator)
+    {
+        try {
+            return (int) GET_STEP.invokeExact(simulator);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static int getSize(Object field)
+    {
+        try {
+            return (int) GET_SIZE.invokeExact(field);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object locationOf(Object field, int cell)
+    {
+        try {
+            return (Object) LOCATION_OF.invokeExact(field, cell);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * @return The index of a location's cell in a field.
+     */
+    static int cellOf(Object field, Object location)
+    {
+        try {
+            return (int) CELL_OF.invokeExact(field, (int) GET_ROW.invokeExact(location),
+                                             (int) GET_COL.invokeExact(location));
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object getObjectAt(Object field, int cell)
+    {
+        try {
+            return (Object) GET_OBJECT_AT.invokeExact(field, cell);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object adjacentLocations(Object field, Object location)
+    {
+        try {
+            return (Object) ADJACENT_LOCATIONS.invokeExact(field, location);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object getFreeAdjacentLocations(Object field, Object location)
+    {
+        try {
+            return (Object) FREE_ADJACENT_LOCATIONS.invokeExact(field, location);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static int freeAdjacentCell(Object field, int cell)
+    {
+        try {
+            return (int) FREE_ADJACENT_CELL.invokeExact(field, cell);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * @return Every disease in a field's parameters.
+     */
+    static Object[] getDiseases(Object field)
+    {
+        try {
+            Object parameters = (Object) GET_PARAMETERS.invokeExact(field);
+            Object[] diseases = new Object[(int) GET_DISEASE_COUNT.invokeExact(parameters)];
+            for(int i = 0; i < diseases.length; i++) {
+                diseases[i] = (Object) GET_DISEASE.invokeExact(parameters, i);
+            }
+            return diseases;
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static boolean isAlive(Object organism)
+    {
+        try {
+            return (boolean) IS_ALIVE.invokeExact(organism);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void giveDisease(Object organism, Object disease)
+    {
+        try {
+            GIVE_DISEASE.invokeExact(organism, disease);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void spreadDiseases(Object organism)
+    {
+        try {
+            SPREAD_DISEASES.invokeExact(organism);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void act(Object organism, List<?> newOrganisms, Object weather, boolean isDayTime)
+    {
+        try {
+            ACT.invokeExact(organism, newOrganisms, weather, isDayTime);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * @return A weather by name.
+     */
+    static Object weather(String name)
+    {
+        for(Object weather : simulationClass("Weather").getEnumConstants()) {
+            if(((Enum<?>) weather).name().equals(name)) {
+                return weather;
+            }
+        }
+        throw new IllegalArgumentException("No weather called " + name);
+    }
+
+    static int[] countSpecies(Object field)
+    {
+        try {
+            return (int[]) (Object) COUNT_SPECIES.invokeExact(field);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object newFieldStats()
+    {
+        try {
+            return (Object) NEW_FIELD_STATS.invokeExact();
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void resetStats(Object stats)
+    {
+        try {
+            RESET_STATS.invokeExact(stats);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static boolean isViable(Object stats, Object field)
+    {
+        try {
+            return (boolean) IS_VIABLE.invokeExact(stats, field);
+        }
+        catch(Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * @return A class of the simulation by name.
+     */
+    static Class<?> simulationClass(String name)
+    {
+        try {
+            return Class.forName(name);
+        }
+        catch(ClassNotFoundException e) {
+            throw new IllegalStateException("The simulation has no class " + name, e);
+        }
+    }
+
+    /**
+     * Look up a constructor, typed to return Object.
+     */
+    private static MethodHandle constructor(String className, Class<?>... parameterTypes)
+    {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findConstructor(
+                simulationClass(className), MethodType.methodType(void.class, parameterTypes));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        }
+        catch(ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot find a constructor of " + className, e);
+        }
+    }
+
+    /**
+     * Look up a method, which may be protected, typed so that every
+     * simulation class is replaced by Object. Parameter types are given
+     * as classes or as the names of simulation classes.
+     */
+    private static MethodHandle method(String className, String name, Object... parameterTypes)
+    {
+        Class<?>[] types = new Class<?>[parameterTypes.length];
+        for(int i = 0; i < types.length; i++) {
+            types[i] = parameterTypes[i] instanceof Class
+                       ? (Class<?>) parameterTypes[i] : simulationClass((String) parameterTypes[i]);
+        }
+        try {
+            Method method = findMethod(simulationClass(className), name, types);
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            MethodType erased = handle.type();
+            for(int i = 0; i < erased.parameterCount(); i++) {
+                if(!erased.parameterType(i).isPrimitive() && erased.parameterType(i) != List.class) {
+                    erased = erased.changeParameterType(i, Object.class);
+                }
+            }
+            if(!erased.returnType().isPrimitive()) {
+                erased = erased.changeReturnType(Object.class);
+            }
+            return handle.asType(erased);
+        }
+        catch(ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot find " + className + "." + name, e);
+        }
+    }
+
+    /**
+     * Find a method declared by a class or one of its superclasses.
+     */
+    private static Method findMethod(Class<?> type, String name, Class<?>[] parameterTypes)
+        throws NoSuchMethodException
+    {
+        for(Class<?> declaring = type; declaring != null; declaring = declaring.getSuperclass()) {
+            try {
+                return declaring.getDeclaredMethod(name, parameterTypes);
+            }
+            catch(NoSuchMethodException e) {
+                // Try the superclass.
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + "." + name);
+    }
+
+    /**
+     * Turn whatever a handle threw into an unchecked exception.
+     */
+    private static RuntimeException failure(Throwable e)
+    {
+        if(e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if(e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of whole simulation steps and of populating a field, at
+ * three field sizes. Every iteration starts from a simulation newly
+ * created with the same seed, so each measures the same run of steps.
+ * The largest field needs a few gigabytes of heap.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SimulatorBenchmark
+{
+    // The seed every iteration starts from.
+    private static final long SEED = 42;
+
+    // The size of the field, as depth x width.
+    @Param({"100x200", "1000x1000", "4000x4000"})
+    public String size;
+
+    // The simulation.
+    private Object simulator;
+
+    /**
+     * Create a new simulation of the field size.
+     */
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        String[] dimensions = size.split("x");
+        simulator = Simulation.newSimulator(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]), SEED);
+    }
+
+    /**
+     * Run one step of the simulation.
+     * @return The step reached.
+     */
+    @Benchmark
+    public int simulateOneStep()
+    {
+        Simulation.simulateOneStep(simulator);
+        return Simulation.getStep(simulator);
+    }
+
+    /**
+     * Clear the field and populate it again, as a reset does.
+     * @return The field.
+     */
+    @Benchmark
+    public Object populate()
+    {
+        Simulation.reset(simulator);
+        return Simulation.getField(simulator);
+    }
+}
@@ -0,0 +1,116 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the timing wheel in AnimalComponents kills animals on the
+ * same steps, and of the same causes, as ageing every animal each step.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class AnimalComponentsTest
+{
+    // The number of steps run, enough for every animal to die.
+    private static final int STEPS = 3600;
+
+    /**
+     * Animals given ages and food levels, some due to die further ahead
+     * than the wheel is long, and fed or aged at random as the steps go
+     * by, must die when a step-by-step count says they do.
+     */
+    @Test
+    public void deathsMatchAgeingEveryStep()
+    {
+        Parameters parameters = Parameters.defaults().with("Jackal.maxAge", 3000);
+        Field field = new Field(30, 40, Randomizer.newStream(25), parameters);
+        AnimalComponents components = field.getAnimalComponents();
+        Random random = new Random(25);
+
+        List<Animal> animals = new ArrayList<>();
+        for(int cell = 0; cell < field.getSize(); cell++) {
+            Location location = field.locationOf(cell);
+            animals.add(random.nextBoolean() ? new Jackal(true, field, location)
+                                             : new Tiger(true, field, location));
+        }
+        int count = animals.size();
+        int[] ages = new int[count];
+        int[] foodLevels = new int[count];
+        boolean[] alive = new boolean[count];
+        for(int i = 0; i < count; i++) {
+            int id = animals.get(i).getId();
+            ages[i] = random.nextInt(components.getMaxAge(id) + 1);
+            foodLevels[i] = 1 + random.nextInt(3500);
+            components.setAge(id, ages[i]);
+            if(i % 7 == 0) {
+                // Filed under the first step, then fed so that it is
+                // due a whole number of turns of the wheel later.
+                ages[i] = 0;
+                foodLevels[i] = 1 + 1024 * (1 + random.nextInt(2));
+                components.setAge(id, 0);
+                components.setFoodLevel(id, 1);
+            }
+            components.setFoodLevel(id, foodLevels[i]);
+            alive[i] = true;
+        }
+
+        long[][] deaths = new long[Species.count()][DeathCause.values().length];
+        for(int step = 1; step <= STEPS; step++) {
+            // Feed some animals, which puts their deaths back, and age
+            // others, which brings them forward. Those due whole turns
+            // ahead are left alone so that they stay filed that way.
+            for(int change = 0; change < 20; change++) {
+                int i = random.nextInt(count);
+                if(!alive[i] || i % 7 == 0) {
+                    continue;
+                }
+                int id = animals.get(i).getId();
+                if(random.nextBoolean()) {
+                    foodLevels[i] += random.nextInt(1500);
+                    components.setFoodLevel(id, foodLevels[i]);
+                }
+                else {
+                    ages[i] = Math.min(ages[i] + random.nextInt(400), components.getMaxAge(id));
+                    components.setAge(id, ages[i]);
+                }
+            }
+
+            components.advanceLifecycle();
+            for(int i = 0; i < count; i++) {
+                if(!alive[i]) {
+                    continue;
+                }
+                Animal animal = animals.get(i);
+                ages[i]++;
+                foodLevels[i]--;
+                if(ages[i] > components.getMaxAge(animal.getId())) {
+                    alive[i] = false;
+                    deaths[animal.getSpeciesCode()][DeathCause.OLD_AGE.ordinal()]++;
+                }
+                else if(foodLevels[i] <= 0) {
+                    alive[i] = false;
+                    deaths[animal.getSpeciesCode()][DeathCause.STARVATION.ordinal()]++;
+                }
+                assertEquals(alive[i], animal.isAlive(), "animal " + i + " on step " + step);
+                if(alive[i]) {
+                    assertEquals(ages[i], animal.getAge(), "age of animal " + i + " on step " + step);
+                    assertEquals(foodLevels[i], animal.getFoodLevel(), "food of animal " + i + " on step " + step);
+                }
+            }
+        }
+
+        for(int i = 0; i < count; i++) {
+            assertFalse(alive[i], "animal " + i + " outlived the test");
+        }
+        for(int code = 1; code < Species.count(); code++) {
+            for(DeathCause cause : DeathCause.values()) {
+                assertEquals(deaths[code][cause.ordinal()], field.getDeaths(code, cause),
+                             "deaths of species " + code + " by " + cause);
+            }
+        }
+    }
+}
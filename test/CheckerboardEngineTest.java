@@ -0,0 +1,38 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the CheckerboardEngine's runs depend only on the seed.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class CheckerboardEngineTest
+{
+    // The number of steps each run is compared over.
+    private static final int STEPS = 150;
+
+    /**
+     * Runs from the same seed must leave the same grid on every step
+     * whether the bands act on one thread or on several.
+     */
+    @Test
+    public void sameGridForAnyNumberOfThreads()
+    {
+        Simulator single = new Simulator(80, 90, 11);
+        Simulator several = new Simulator(80, 90, 11);
+        single.setEngine(new CheckerboardEngine(1));
+        several.setEngine(new CheckerboardEngine(4));
+        byte[] expected = new byte[single.getField().getSize()];
+        byte[] actual = new byte[several.getField().getSize()];
+        for(int step = 1; step <= STEPS; step++) {
+            single.simulateOneStep();
+            several.simulateOneStep();
+            single.getField().copySpecies(expected);
+            several.getField().copySpecies(actual);
+            assertArrayEquals(expected, actual, "step " + step);
+        }
+        assertArrayEquals(single.getField().getPopulations(), several.getField().getPopulations());
+    }
+}
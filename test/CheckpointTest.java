@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that restoring a checkpoint brings back the simulation it was
+ * taken from.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class CheckpointTest
+{
+    // A directory for the checkpoint files, removed after each test.
+    @TempDir
+    Path directory;
+
+    /**
+     * The restored field must have the same populations and the same
+     * totals of births, infections and deaths as the one saved.
+     */
+    @Test
+    public void restoreKeepsTotals() throws Exception
+    {
+        Simulator saved = new Simulator(60, 80, 5);
+        saved.simulate(80);
+        Path file = saved.checkpoint(directory.resolve("run.ckpt")).get();
+
+        Simulator restored = new Simulator(60, 80, 5);
+        restored.simulate(10);
+        restored.restore(file);
+        assertEquals(saved.getStep(), restored.getStep());
+        assertTotalsEqual(saved.getField(), restored.getField());
+    }
+
+    /**
+     * A restored run carried on with the sequential engine must follow
+     * the saved run bit for bit, totals included.
+     */
+    @Test
+    public void restoredRunContinuesExactly() throws Exception
+    {
+        Simulator saved = new Simulator(60, 80, 5);
+        saved.simulate(60);
+        Path file = saved.checkpoint(directory.resolve("run.ckpt")).get();
+        Simulator restored = new Simulator(60, 80, 5);
+        restored.restore(file);
+
+        saved.simulate(40);
+        restored.simulate(40);
+        byte[] expected = new byte[saved.getField().getSize()];
+        byte[] actual = new byte[restored.getField().getSize()];
+        saved.getField().copySpecies(expected);
+        restored.getField().copySpecies(actual);
+        assertArrayEquals(expected, actual);
+        assertTotalsEqual(saved.getField(), restored.getField());
+    }
+
+    /**
+     * Organisms must come back from a checkpoint with the diseases they
+     * had, and a run full of infected organisms must carry on exactly.
+     */
+    @Test
+    public void restoreKeepsDiseases() throws Exception
+    {
+        Simulator saved = new Simulator(40, 50, 9);
+        Field field = saved.getField();
+        Parameters parameters = field.getParameters();
+        int infected = 0;
+        for(int cell = 0; cell < field.getSize(); cell++) {
+            Organism organism = field.getObjectAt(cell);
+            if(organism != null && cell % 3 != 0) {
+                organism.giveDisease(parameters.getDisease(0));
+                if(cell % 3 == 2) {
+                    organism.giveDisease(parameters.getDisease(parameters.getDiseaseCount() - 1));
+                }
+                infected++;
+            }
+        }
+        assertTrue(infected > 0);
+        Path file = saved.checkpoint(directory.resolve("infected.ckpt")).get();
+        Simulator restored = new Simulator(40, 50, 9);
+        restored.restore(file);
+
+        Field copy = restored.getField();
+        for(int cell = 0; cell < field.getSize(); cell++) {
+            Organism original = field.getObjectAt(cell);
+            Organism recreated = copy.getObjectAt(cell);
+            if(original == null) {
+                assertNull(recreated, "cell " + cell);
+            }
+            else {
+                assertEquals(original.getClass(), recreated.getClass(), "cell " + cell);
+                assertEquals(original.getDiseaseBits(), recreated.getDiseaseBits(), "cell " + cell);
+            }
+        }
+        assertTotalsEqual(field, copy);
+
+        saved.simulate(30);
+        restored.simulate(30);
+        assertTotalsEqual(saved.getField(), restored.getField());
+    }
+
+    /**
+     * Check that two fields have the same populations and totals.
+     * @param expected The field saved.
+     * @param actual The field restored.
+     */
+    private static void assertTotalsEqual(Field expected, Field actual)
+    {
+        assertArrayEquals(expected.getPopulations(), actual.getPopulations(), "populations");
+        for(int code = 1; code < Species.count(); code++) {
+            assertEquals(expected.getBirths(code), actual.getBirths(code), "births of species " + code);
+            assertEquals(expected.getInfections(code), actual.getInfections(code),
+                         "infections of species " + code);
+            for(DeathCause cause : DeathCause.values()) {
+                assertEquals(expected.getDeaths(code, cause), actual.getDeaths(code, cause),
+                             "deaths of species " + code + " by " + cause);
+            }
+        }
+        assertTrue(Arrays.stream(expected.getPopulations()).sum() > 0);
+    }
+}
@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the statistics an EnsembleResult combines runs into.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class EnsembleResultTest
+{
+    /**
+     * The mean and interval must match the textbook formulas.
+     */
+    @Test
+    public void meanAndIntervalOfSmallCounts()
+    {
+        int code = Species.codeOf(Tiger.class);
+        EnsembleResult result = new EnsembleResult(0);
+        for(int count : new int[] { 2, 4, 4, 4, 5, 5, 7, 9 }) {
+            result.add(countsOf(code, count));
+        }
+        // The sample variance of these counts is 32 / 7.
+        assertEquals(5.0, result.getMean(0, Tiger.class), 1e-12);
+        assertEquals(1.96 * Math.sqrt(32.0 / 7 / 8), result.getHalfWidth(0, Tiger.class), 1e-12);
+    }
+
+    /**
+     * Large populations with a small spread must keep their variance,
+     * which a sum of squares loses to cancellation.
+     */
+    @Test
+    public void largePopulationsKeepTheirSpread()
+    {
+        int code = Species.codeOf(Tiger.class);
+        EnsembleResult result = new EnsembleResult(0);
+        int base = 1_000_000_000;
+        for(int run = 0; run < 300; run++) {
+            result.add(countsOf(code, base + run % 3));
+        }
+        // Counts of base, base + 1 and base + 2 in equal numbers.
+        double variance = 200.0 / 299;
+        assertEquals(base + 1, result.getMean(0, Tiger.class), 1e-6);
+        assertEquals(1.96 * Math.sqrt(variance / 300), result.getHalfWidth(0, Tiger.class), 1e-9);
+    }
+
+    /**
+     * A species missing from some runs counts as none in them.
+     */
+    @Test
+    public void missingSpeciesCountsAsNone()
+    {
+        int code = Species.codeOf(Tiger.class);
+        EnsembleResult result = new EnsembleResult(0);
+        result.add(new int[][] { new int[1] });
+        result.add(countsOf(code, 6));
+        result.add(new int[][] { new int[1] });
+        assertEquals(2.0, result.getMean(0, Tiger.class), 1e-12);
+        assertEquals(1.96 * Math.sqrt(12.0 / 3), result.getHalfWidth(0, Tiger.class), 1e-12);
+    }
+
+    /**
+     * @param code A species code.
+     * @param count Its population.
+     * @return The populations of a run of no steps with only that species.
+     */
+    private static int[][] countsOf(int code, int count)
+    {
+        int[] atStep = new int[code + 1];
+        atStep[code] = count;
+        return new int[][] { atStep };
+    }
+}
@@ -0,0 +1,290 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the bookkeeping Field keeps alongside the grid.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class FieldTest
+{
+    /**
+     * The running population counts must match the organisms on the
+     * grid after populating and after every step.
+     */
+    @Test
+    public void populationsMatchGrid()
+    {
+        for(long seed = 1; seed <= 3; seed++) {
+            Simulator simulator = new Simulator(60, 80, seed);
+            Field field = simulator.getField();
+            assertPopulationsMatchGrid(field, seed, 0);
+            for(int step = 1; step <= 200 && simulator.isViable(); step++) {
+                simulator.simulateOneStep();
+                assertPopulationsMatchGrid(field, seed, step);
+            }
+        }
+    }
+
+    /**
+     * Organisms created one after another in the same cell during a
+     * step must get streams of their own, while the first organism
+     * created there gets the same stream in every field with the same seed.
+     */
+    @Test
+    public void organismsCreatedInOneCellGetTheirOwnStreams()
+    {
+        Field field = new Field(10, 10, Randomizer.newStream(7), Parameters.defaults());
+        Field twin = new Field(10, 10, Randomizer.newStream(7), Parameters.defaults());
+        field.setStep(4);
+        twin.setStep(4);
+        long first = field.streamFor(23).nextLong();
+        long second = field.streamFor(23).nextLong();
+        long third = field.streamFor(23).nextLong();
+        assertNotEquals(first, second);
+        assertNotEquals(first, third);
+        assertNotEquals(second, third);
+        assertEquals(first, twin.streamFor(23).nextLong());
+        field.setStep(5);
+        assertNotEquals(first, field.streamFor(23).nextLong());
+    }
+
+    /**
+     * The occupancy bitset must find the same free cells as a scan of
+     * the occupants, after every birth, death and move.
+     */
+    @Test
+    public void nextFreeCellMatchesAScan()
+    {
+        Field field = newField();
+        Random random = new Random(22);
+        int size = field.getSize();
+        for(int change = 1; change <= 600; change++) {
+            changeAtRandom(field, random);
+            int free = 0;
+            for(int cell = 0; cell < size; cell++) {
+                assertEquals(field.getObjectAt(cell) == null, field.isEmpty(cell), "cell " + cell);
+                if(field.getObjectAt(cell) == null) {
+                    free++;
+                }
+            }
+            assertEquals(free, field.countOf(Species.NONE), "free cells after change " + change);
+            for(int from : new int[] { 0, 1, 63, 64, 65, 130, size - 1 }) {
+                for(long skip : new long[] { 0, 1, 2, 7, 40, size }) {
+                    assertEquals(scanForFreeCell(field, from, skip), field.nextFreeCell(from, skip),
+                                 "from " + from + " skipping " + skip + " after change " + change);
+                }
+            }
+        }
+    }
+
+    /**
+     * The bitplane of every species must agree with the species codes
+     * of the cells, counted whole, within a region and cell by cell.
+     */
+    @Test
+    public void bitplanesMatchAScan()
+    {
+        Field field = newField();
+        Random random = new Random(23);
+        for(int change = 1; change <= 400; change++) {
+            changeAtRandom(field, random);
+            assertPlanesMatchScan(field, "change " + change);
+        }
+        Simulator simulator = new Simulator(40, 70, 23);
+        for(int step = 1; step <= 60; step++) {
+            simulator.simulateOneStep();
+            assertPlanesMatchScan(simulator.getField(), "step " + step);
+        }
+    }
+
+    /**
+     * Check each species' bitplane against a scan of the species codes.
+     * @param field The field to check.
+     * @param when When the check is made, for the failure message.
+     */
+    private static void assertPlanesMatchScan(Field field, String when)
+    {
+        int size = field.getSize();
+        int[] counts = field.countSpecies();
+        int top = field.getDepth() / 3, left = field.getWidth() / 4;
+        int rows = field.getDepth() / 2, cols = field.getWidth() / 2;
+        long[] region = field.regionMask(top, left, rows, cols);
+        for(int code = 0; code < Species.count(); code++) {
+            int total = 0, inRegion = 0;
+            int next = field.nextCellOf(code, 0);
+            for(int cell = 0; cell < size; cell++) {
+                if(field.getSpeciesAt(cell) != code) {
+                    continue;
+                }
+                total++;
+                int row = field.rowOf(cell), col = field.colOf(cell);
+                if(row >= top && row < top + rows && col >= left && col < left + cols) {
+                    inRegion++;
+                }
+                assertEquals(cell, next, "next cell of species " + code + " at " + when);
+                next = field.nextCellOf(code, cell + 1);
+            }
+            assertEquals(-1, next, "cell past the last of species " + code + " at " + when);
+            assertEquals(total, field.countOf(code), "count of species " + code + " at " + when);
+            assertEquals(total, counts[code], "tally of species " + code + " at " + when);
+            assertEquals(inRegion, field.countOf(code, region), "region count of species " + code + " at " + when);
+        }
+    }
+
+    /**
+     * The neighbourhood summaries must answer the mate and trophic level
+     * queries the same way a walk over each cell's neighbours does.
+     */
+    @Test
+    public void summariesMatchANeighbourWalk()
+    {
+        Field field = newField();
+        Random random = new Random(24);
+        for(int change = 1; change <= 400; change++) {
+            changeAtRandom(field, random);
+            assertSummariesMatchWalk(field, "change " + change);
+        }
+        Simulator simulator = new Simulator(40, 70, 24);
+        for(int step = 1; step <= 60; step++) {
+            simulator.simulateOneStep();
+            assertSummariesMatchWalk(simulator.getField(), "step " + step);
+        }
+    }
+
+    /**
+     * Check every cell's summary against a walk over its neighbours.
+     * @param field The field to check.
+     * @param when When the check is made, for the failure message.
+     */
+    private static void assertSummariesMatchWalk(Field field, String when)
+    {
+        for(int cell = 0; cell < field.getSize(); cell++) {
+            for(byte code = 1; code < Species.count(); code++) {
+                for(Gender gender : Gender.values()) {
+                    int mate = gender == Gender.MALE ? Gender.FEMALE.ordinal() : Gender.MALE.ordinal();
+                    boolean expected = false;
+                    for(Organism neighbour : neighboursOf(field, cell)) {
+                        expected |= neighbour.getSpeciesCode() == code && neighbour.getGenderIndex() == mate;
+                    }
+                    assertEquals(expected, field.hasMateNear(cell, code, gender),
+                                 "mate of species " + code + " " + gender + " near cell " + cell + " at " + when);
+                }
+            }
+            for(int level = -1; level <= 5; level++) {
+                boolean expected = false;
+                for(Organism neighbour : neighboursOf(field, cell)) {
+                    expected |= neighbour.getTrophicLevel() == level;
+                }
+                assertEquals(expected, field.hasNeighbourAtLevel(cell, level),
+                             "level " + level + " near cell " + cell + " at " + when);
+            }
+        }
+    }
+
+    /**
+     * @param field The field.
+     * @param cell The index of a cell.
+     * @return The occupants of the cells next to the given one.
+     */
+    private static List<Organism> neighboursOf(Field field, int cell)
+    {
+        List<Organism> neighbours = new ArrayList<>();
+        int row = field.rowOf(cell), col = field.colOf(cell);
+        for(int r = Math.max(row - 1, 0); r <= Math.min(row + 1, field.getDepth() - 1); r++) {
+            for(int c = Math.max(col - 1, 0); c <= Math.min(col + 1, field.getWidth() - 1); c++) {
+                Organism neighbour = field.getObjectAt(field.indexOf(r, c));
+                if(neighbour != null && field.indexOf(r, c) != cell) {
+                    neighbours.add(neighbour);
+                }
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * @return A field of 13 by 17 cells, which does not fill its last
+     *         word of bits, with the default parameters.
+     */
+    private static Field newField()
+    {
+        return new Field(13, 17, Randomizer.newStream(5), Parameters.defaults());
+    }
+
+    /**
+     * Change a field at random: create an organism in a free cell, or
+     * kill an occupant, or move it to a free cell.
+     * @param field The field to change.
+     * @param random The source of the changes.
+     */
+    private static void changeAtRandom(Field field, Random random)
+    {
+        int cell = random.nextInt(field.getSize());
+        Organism occupant = field.getObjectAt(cell);
+        if(occupant == null) {
+            Location location = field.locationOf(cell);
+            switch(random.nextInt(3)) {
+                case 0:
+                    new Plant(field, location);
+                    break;
+                case 1:
+                    new Jackal(true, field, location);
+                    break;
+                default:
+                    new Tiger(true, field, location);
+                    break;
+            }
+        }
+        else if(random.nextBoolean()) {
+            occupant.setDead(DeathCause.DISEASE);
+        }
+        else {
+            int target = random.nextInt(field.getSize());
+            if(field.getObjectAt(target) == null) {
+                occupant.setLocation(target);
+            }
+        }
+    }
+
+    /**
+     * Find a free cell the slow way, by looking at every occupant.
+     * @param field The field to look in.
+     * @param from The cell to start counting from.
+     * @param skip The number of free cells to pass over.
+     * @return The free cell reached, or -1 if there are too few.
+     */
+    private static int scanForFreeCell(Field field, int from, long skip)
+    {
+        for(int cell = from; cell < field.getSize(); cell++) {
+            if(field.getObjectAt(cell) == null) {
+                if(skip == 0) {
+                    return cell;
+                }
+                skip--;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check the running counts of a field against a count of its grid.
+     * @param field The field to check.
+     * @param seed The seed of the run, for the failure message.
+     * @param step The step of the run, for the failure message.
+     */
+    private static void assertPopulationsMatchGrid(Field field, long seed, int step)
+    {
+        int[] populations = field.getPopulations();
+        int[] onGrid = field.countSpecies();
+        for(int code = 1; code < populations.length; code++) {
+            assertEquals(onGrid[code], populations[code],
+                         "species " + code + " with seed " + seed + " at step " + step);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that a MetricsSink writes one row per step matching the
+ * simulation, to both of its files.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class MetricsSinkTest
+{
+    // Enough steps to fill more than one row group.
+    private static final int STEPS = 4500;
+
+    // A directory for the metrics files, removed after each test.
+    @TempDir
+    Path directory;
+
+    /**
+     * Every row must hold the step, weather and populations seen on that
+     * step, the per-step counts must add up to the field's totals, and
+     * the binary file must hold the same rows as the CSV file.
+     */
+    @Test
+    public void rowsMatchTheSimulation() throws Exception
+    {
+        Simulator simulator = new Simulator(20, 30, 16);
+        List<int[]> seen = new ArrayList<>();
+        Path base = directory.resolve("run");
+        try(MetricsSink sink = new MetricsSink(base)) {
+            simulator.addObserver(sink);
+            simulator.addObserver(observed -> {
+                int[] populations = observed.getField().getPopulations();
+                int[] row = Arrays.copyOf(populations, populations.length + 2);
+                row[populations.length] = observed.getStep();
+                row[populations.length + 1] = observed.getWeather().ordinal();
+                seen.add(row);
+            });
+            // Step on past the point simulate would stop at once the animals die out.
+            for(int step = 0; step < STEPS; step++) {
+                simulator.simulateOneStep();
+            }
+        }
+        assertEquals(STEPS, seen.size());
+
+        List<String> lines = Files.readAllLines(base.resolveSibling("run.csv"));
+        String[] columns = lines.get(0).split(",");
+        assertEquals("step", columns[0]);
+        assertEquals("weather", columns[1]);
+        int perSpecies = DeathCause.values().length + 3;
+        assertEquals(2 + (Species.count() - 1) * perSpecies, columns.length);
+        assertEquals(seen.size() + 1, lines.size());
+
+        int[][] table = new int[seen.size()][];
+        long[] sums = new long[columns.length];
+        for(int row = 0; row < seen.size(); row++) {
+            table[row] = Arrays.stream(lines.get(row + 1).split(",")).mapToInt(Integer::parseInt).toArray();
+            int[] expected = seen.get(row);
+            int species = expected.length - 2;
+            assertEquals(expected[species], table[row][0], "step in row " + row);
+            assertEquals(expected[species + 1], table[row][1], "weather in row " + row);
+            for(int code = 1; code < Species.count(); code++) {
+                int population = code < species ? expected[code] : 0;
+                assertEquals(population, table[row][2 + (code - 1) * perSpecies],
+                             "population of species " + code + " in row " + row);
+            }
+            for(int column = 2; column < columns.length; column++) {
+                sums[column] += table[row][column];
+            }
+        }
+
+        Field field = simulator.getField();
+        for(int code = 1; code < Species.count(); code++) {
+            int column = 3 + (code - 1) * perSpecies;
+            for(DeathCause cause : DeathCause.values()) {
+                assertEquals(field.getDeaths(code, cause), sums[column++],
+                             "deaths of species " + code + " by " + cause);
+            }
+            assertEquals(field.getBirths(code), sums[column++], "births of species " + code);
+            assertEquals(field.getInfections(code), sums[column], "infections of species " + code);
+        }
+
+        assertBinaryMatches(base.resolveSibling("run.bin"), columns, table);
+    }
+
+    /**
+     * Check that the binary file has the given columns and rows.
+     * @param file The binary file.
+     * @param columns The names of the columns.
+     * @param table The rows, as read from the CSV file.
+     */
+    private static void assertBinaryMatches(Path file, String[] columns, int[][] table) throws Exception
+    {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x5050414D, in.getInt());
+        assertEquals(1, in.getInt());
+        assertEquals(columns.length, in.getInt());
+        for(String column : columns) {
+            byte[] name = new byte[in.getInt()];
+            in.get(name);
+            assertEquals(column, new String(name, StandardCharsets.UTF_8));
+        }
+
+        int first = 0;
+        int groups = 0;
+        while(in.hasRemaining()) {
+            int rows = in.getInt();
+            for(int column = 0; column < columns.length; column++) {
+                for(int row = first; row < first + rows; row++) {
+                    assertEquals(table[row][column], in.getInt(), columns[column] + " in row " + row);
+                }
+            }
+            first += rows;
+            groups++;
+        }
+        assertEquals(table.length, first);
+        assertTrue(groups > 1, "the rows fit in one group");
+    }
+}
@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that an OrganismStore drops its dead organisms and keeps the
+ * rest in order.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class OrganismStoreTest
+{
+    /**
+     * Over rounds of deaths and births, removeDead must leave exactly
+     * the live organisms, in the order they were added.
+     */
+    @Test
+    public void removeDeadKeepsSurvivorsInOrder()
+    {
+        Field field = new Field(20, 30, Randomizer.newStream(9), Parameters.defaults());
+        Random random = new Random(9);
+        OrganismStore store = new OrganismStore();
+        List<Organism> expected = new ArrayList<>();
+        int cell = 0;
+        for(int round = 1; round <= 20; round++) {
+            List<Organism> born = new ArrayList<>();
+            for(int i = random.nextInt(60); i > 0 && cell < field.getSize(); i--, cell++) {
+                Location location = field.locationOf(cell);
+                born.add(random.nextBoolean() ? new Plant(field, location)
+                                              : new Jackal(true, field, location));
+            }
+            store.addAll(born);
+            expected.addAll(born);
+
+            for(Organism organism : expected) {
+                if(random.nextInt(3) == 0) {
+                    organism.setDead(DeathCause.DISEASE);
+                }
+            }
+            int dead = (int) expected.stream().filter(organism -> !organism.isAlive()).count();
+            expected.removeIf(organism -> !organism.isAlive());
+
+            assertEquals(dead, store.removeDead(), "removed in round " + round);
+            assertEquals(expected, store, "survivors in round " + round);
+        }
+        assertEquals(0, store.removeDead());
+    }
+
+    /**
+     * Removing the dead from a store where every organism has died
+     * must leave it empty and ready for more.
+     */
+    @Test
+    public void removeDeadCanEmptyTheStore()
+    {
+        Field field = new Field(5, 5, Randomizer.newStream(9), Parameters.defaults());
+        OrganismStore store = new OrganismStore();
+        for(int cell = 0; cell < field.getSize(); cell++) {
+            store.add(new Plant(field, field.locationOf(cell)));
+        }
+        for(Organism organism : store) {
+            organism.setDead(DeathCause.SNOW);
+        }
+        assertEquals(field.getSize(), store.removeDead());
+        assertTrue(store.isEmpty());
+
+        Plant plant = new Plant(field, field.locationOf(0));
+        store.add(plant);
+        assertEquals(List.of(plant), store);
+    }
+}
@@ -0,0 +1,100 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a Pacer keeps steps and frames to their rates and drops
+ * frames only while the simulation is behind.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class PacerTest
+{
+    /**
+     * With no limits every step is shown at once and nothing waits.
+     */
+    @Test
+    public void unlimitedShowsEveryStep()
+    {
+        Pacer pacer = new Pacer(0, 0);
+        for(int step = 0; step < 100; step++) {
+            pacer.awaitNextStep();
+            assertTrue(pacer.frameDue(), "step " + step);
+        }
+        assertEquals(100, pacer.getFramesShown());
+        assertEquals(0, pacer.getFramesDropped());
+    }
+
+    /**
+     * A simulation that keeps up with its step rate is shown every step
+     * when frames are not limited, and its steps take the time asked for.
+     */
+    @Test
+    public void keepingUpShowsEveryStep()
+    {
+        Pacer pacer = new Pacer(200, 0);
+        long start = System.nanoTime();
+        for(int step = 0; step < 10; step++) {
+            pacer.awaitNextStep();
+            assertTrue(pacer.frameDue(), "step " + step);
+        }
+        assertTrue(System.nanoTime() - start >= 48_000_000L, "10 steps at 200 a second took under 48ms");
+        assertEquals(0, pacer.getFramesDropped());
+    }
+
+    /**
+     * Frames are shown no more often than the frame rate allows, and
+     * steps not shown for that reason are not counted as dropped.
+     */
+    @Test
+    public void framesKeepToTheirRate()
+    {
+        Pacer pacer = new Pacer(0, 20);
+        long start = System.nanoTime();
+        int shown = 0;
+        while(System.nanoTime() - start < 300_000_000L) {
+            if(pacer.frameDue()) {
+                shown++;
+            }
+        }
+        // 300ms at 20 frames a second is 6 frames, plus the first.
+        assertTrue(shown >= 2 && shown <= 7, shown + " frames shown");
+        assertEquals(shown, pacer.getFramesShown());
+        assertEquals(0, pacer.getFramesDropped());
+    }
+
+    /**
+     * A simulation behind its steps has its frames dropped, but not for
+     * longer than the pacer's longest gap between frames.
+     */
+    @Test
+    public void behindDropsFramesForAWhile() throws InterruptedException
+    {
+        Pacer pacer = new Pacer(1000, 0);
+        Thread.sleep(20);
+        assertFalse(pacer.frameDue());
+        assertFalse(pacer.frameDue());
+        assertEquals(2, pacer.getFramesDropped());
+        assertEquals(0, pacer.getFramesShown());
+
+        Thread.sleep(520);
+        assertTrue(pacer.frameDue());
+        assertEquals(1, pacer.getFramesShown());
+
+        // Once it is far behind the lost time is forgotten and frames come back.
+        pacer.awaitNextStep();
+        assertTrue(pacer.frameDue());
+        assertEquals(2, pacer.getFramesDropped());
+    }
+
+    /**
+     * Negative rates are refused.
+     */
+    @Test
+    public void negativeRatesAreRefused()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new Pacer(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Pacer(0, -1));
+    }
+}
@@ -0,0 +1,47 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for laying out the runs of a ParameterSweep.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class ParameterSweepTest
+{
+    /**
+     * A grid has one run for every combination of levels.
+     */
+    @Test
+    public void gridRunsEveryCombination()
+    {
+        List<SweepResult> results = new ParameterSweep(10, 10, 2)
+            .vary("Tiger.maxAge", 300, 1200)
+            .vary("Ebola.mortalityRate", 0.05, 0.5)
+            .setThreads(1)
+            .runGrid(3);
+        assertEquals(9, results.size());
+    }
+
+    /**
+     * Grids with no levels, or too many runs to count, are refused.
+     */
+    @Test
+    public void impossibleGridsAreRefused()
+    {
+        ParameterSweep sweep = new ParameterSweep(10, 10, 2);
+        String[] names = { "Tiger.maxAge", "Tiger.breedingAge", "Bear.maxAge", "Bear.breedingAge",
+                           "Deer.maxAge", "Deer.breedingAge", "Jackal.maxAge", "Jackal.breedingAge",
+                           "Beaver.maxAge", "Beaver.breedingAge" };
+        for(String name : names) {
+            sweep.vary(name, 10, 100);
+        }
+        assertThrows(IllegalArgumentException.class, () -> sweep.runGrid(0));
+        IllegalArgumentException tooMany = assertThrows(IllegalArgumentException.class,
+                                                        () -> sweep.runGrid(10));
+        assertTrue(tooMany.getMessage().contains("too many runs"), tooMany.getMessage());
+    }
+}
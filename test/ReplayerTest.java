@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that a run recorded by an EventRecorder replays exactly.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class ReplayerTest
+{
+    // The number of steps recorded by each test.
+    private static final int STEPS = 120;
+
+    // A directory for the event logs, removed after each test.
+    @TempDir
+    Path directory;
+
+    /**
+     * Replaying every step in order must rebuild the live grid.
+     */
+    @Test
+    public void replayMatchesLiveGridOnEveryStep() throws IOException
+    {
+        for(int keyframeInterval : new int[] { 50, 1000 }) {
+            Path log = directory.resolve("run-" + keyframeInterval + ".log");
+            List<byte[]> grids = record(new SequentialEngine(), log, keyframeInterval);
+            Replayer replayer = new Replayer(log);
+            assertEquals(0, replayer.getFirstStep());
+            assertEquals(STEPS, replayer.getLastStep());
+            for(int step = 0; step <= STEPS; step++) {
+                replayer.seek(step);
+                assertGridEquals(grids.get(step), replayer.getField(), step);
+            }
+        }
+    }
+
+    /**
+     * Seeking backwards and across keyframes must rebuild the same grid
+     * as replaying in order.
+     */
+    @Test
+    public void seekMatchesLiveGrid() throws IOException
+    {
+        Path log = directory.resolve("run.log");
+        List<byte[]> grids = record(new SequentialEngine(), log, 50);
+        Replayer replayer = new Replayer(log);
+        for(int step : new int[] { STEPS, 37, 0, 99, 51, 50, 49, 18, STEPS }) {
+            replayer.seek(step);
+            assertGridEquals(grids.get(step), replayer.getField(), step);
+        }
+    }
+
+    /**
+     * Organisms acting on several threads record their events under a
+     * lock, so a run on a parallel engine must replay exactly too.
+     */
+    @Test
+    public void parallelRunReplays() throws IOException
+    {
+        Path log = directory.resolve("parallel.log");
+        List<byte[]> grids = record(new CheckerboardEngine(2), log, 50);
+        Replayer replayer = new Replayer(log);
+        for(int step = 0; step <= STEPS; step++) {
+            replayer.seek(step);
+            assertGridEquals(grids.get(step), replayer.getField(), step);
+        }
+    }
+
+    /**
+     * Record a run, keeping a copy of the live grid after every step.
+     * @param engine The engine to run the simulation with.
+     * @param log The file to record to.
+     * @param keyframeInterval The number of steps between keyframes.
+     * @return The species codes of every cell, indexed by step.
+     */
+    private static List<byte[]> record(StepEngine engine, Path log, int keyframeInterval) throws IOException
+    {
+        Simulator simulator = new Simulator(60, 80, 3);
+        simulator.setEngine(engine);
+        Field field = simulator.getField();
+        List<byte[]> grids = new ArrayList<>();
+        try(EventRecorder recorder = new EventRecorder(log, keyframeInterval)) {
+            simulator.setRecorder(recorder);
+            grids.add(copyGrid(field));
+            for(int step = 1; step <= STEPS; step++) {
+                simulator.simulateOneStep();
+                grids.add(copyGrid(field));
+            }
+            simulator.setRecorder(null);
+        }
+        return grids;
+    }
+
+    /**
+     * @param field A field.
+     * @return The species code of every cell of the field.
+     */
+    private static byte[] copyGrid(Field field)
+    {
+        byte[] grid = new byte[field.getSize()];
+        field.copySpecies(grid);
+        return grid;
+    }
+
+    /**
+     * Check a replayed field against the live grid, naming the first
+     * cell that differs.
+     * @param expected The live grid.
+     * @param replayed The replayed field.
+     * @param step The step being compared, for the failure message.
+     */
+    private static void assertGridEquals(byte[] expected, Field replayed, int step)
+    {
+        byte[] actual = copyGrid(replayed);
+        for(int cell = 0; cell < expected.length; cell++) {
+            if(expected[cell] != actual[cell]) {
+                fail("Step " + step + " differs first at cell " + cell + ": expected species "
+                     + expected[cell] + " but replayed " + actual[cell]);
+            }
+        }
+    }
+}
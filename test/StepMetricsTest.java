@@ -0,0 +1,126 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that StepMetrics times every step and phase, and that watching
+ * a run through it leaves the run unchanged.
+ *
+ * @author Obed Ngigi, Daniel Chakaveh-Roberts
+ * @version 1.0
+ */
+public class StepMetricsTest
+{
+    // The number of steps each run takes.
+    private static final int STEPS = 120;
+
+    // A directory for the flight recording, removed after each test.
+    @TempDir
+    Path directory;
+
+    /**
+     * Every step and every phase within it must be counted, and the
+     * counters must be the field's own.
+     */
+    @Test
+    public void countsStepsAndPhases()
+    {
+        Simulator simulator = new Simulator(50, 60, 18);
+        StepMetrics metrics = simulator.getMetrics();
+        for(int step = 0; step < STEPS; step++) {
+            simulator.simulateOneStep();
+        }
+
+        assertEquals(STEPS, metrics.getStepCount());
+        assertTrue(metrics.getMeanStepMillis() > 0);
+        assertTrue(metrics.getMedianStepMillis() <= metrics.getP99StepMillis());
+        assertTrue(metrics.getP99StepMillis() <= metrics.getMaxStepMillis());
+        assertTrue(metrics.getStepsPerSecond() > 0);
+
+        Map<String, Double> phases = metrics.getMeanPhaseMillis();
+        assertEquals(StepMetrics.Phase.values().length, phases.size());
+        for(StepMetrics.Phase phase : StepMetrics.Phase.values()) {
+            assertTrue(phases.get(phase.name()) >= 0, phase.name());
+        }
+        assertTrue(phases.get(StepMetrics.Phase.ACT.name()) > 0);
+        assertTrue(metrics.getMeanActNanos().values().stream().anyMatch(nanos -> nanos > 0));
+
+        Field field = simulator.getField();
+        int[] populations = field.getPopulations();
+        for(int code = 1; code < Species.count(); code++) {
+            String name = Species.classOf(code).getName();
+            long deaths = 0;
+            for(DeathCause cause : DeathCause.values()) {
+                deaths += field.getDeaths(code, cause);
+            }
+            assertEquals(code < populations.length ? populations[code] : 0,
+                         metrics.getPopulations().getOrDefault(name, 0L));
+            assertEquals(field.getBirths(code), metrics.getBirths().get(name));
+            assertEquals(deaths, metrics.getDeaths().get(name));
+            assertEquals(field.getInfections(code), metrics.getInfections().get(name));
+        }
+
+        metrics.reset();
+        assertEquals(0, metrics.getStepCount());
+    }
+
+    /**
+     * A run published over JMX and written to a flight recording must
+     * take exactly the steps of a run that is not watched, and each of
+     * its steps must be recorded.
+     */
+    @Test
+    public void watchingDoesNotChangeTheRun() throws Exception
+    {
+        Simulator plain = new Simulator(50, 60, 18);
+        Simulator watched = new Simulator(50, 60, 18);
+        StepMetrics metrics = watched.getMetrics();
+        metrics.publish("StepMetricsTest");
+        metrics.setFlightEvents(true);
+        Path file = directory.resolve("steps.jfr");
+        byte[] expected = new byte[plain.getField().getSize()];
+        byte[] actual = new byte[watched.getField().getSize()];
+        try(Recording recording = new Recording()) {
+            recording.enable(StepEvent.class);
+            recording.start();
+            for(int step = 1; step <= STEPS; step++) {
+                plain.simulateOneStep();
+                watched.simulateOneStep();
+                plain.getField().copySpecies(expected);
+                watched.getField().copySpecies(actual);
+                assertArrayEquals(expected, actual, "step " + step);
+            }
+            recording.stop();
+            recording.dump(file);
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("ppa:type=StepMetrics,name=" + ObjectName.quote("StepMetricsTest"));
+            assertEquals((long) STEPS, server.getAttribute(name, "StepCount"));
+        }
+        finally {
+            metrics.unpublish();
+        }
+
+        assertArrayEquals(plain.getField().getPopulations(), watched.getField().getPopulations());
+        int recorded = 0;
+        for(RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if(event.getEventType().getName().equals("ppa.Step")) {
+                recorded++;
+                assertEquals(recorded, event.getInt("step"));
+            }
+        }
+        assertEquals(STEPS, recorded);
+    }
+}